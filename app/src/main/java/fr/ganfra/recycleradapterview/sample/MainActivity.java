@@ -6,7 +6,6 @@ import android.os.Bundle;
 import android.support.annotation.Nullable;
 import android.support.v7.app.AppCompatActivity;
 import android.support.v7.widget.Toolbar;
-import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.AdapterView;
@@ -22,6 +21,7 @@ import java.util.List;
 import butterknife.ButterKnife;
 import butterknife.InjectView;
 import butterknife.OnClick;
+import fr.ganfra.recycleradapterview.DiffAdapter;
 import fr.ganfra.recycleradapterview.RecyclerAdapterView;
 
 public class MainActivity extends AppCompatActivity {
@@ -52,6 +52,7 @@ public class MainActivity extends AppCompatActivity {
 
 
         recyclerAdapterView.setAdapter(adapter);
+        adapter.inflateItemViewsAsync(recyclerAdapterView, 0, 8);
         recyclerAdapterView.setEmptyView(emptyView);
 
 
@@ -97,44 +98,61 @@ public class MainActivity extends AppCompatActivity {
     }
 
 
-    static class MyAdapter extends RecyclerAdapterView.Adapter<MyAdapter.MyHolder> {
+    static class MyAdapter extends DiffAdapter<City, MyAdapter.MyHolder> {
 
 
         private Context mContext;
-        private List<City> mCityItems = new ArrayList<>();
 
         public MyAdapter(final Context context) {
             mContext = context;
         }
 
         public void addData(final List<City> items) {
-            mCityItems.addAll(items);
-            notifyDataSetChanged();
+            final List<City> cityItems = new ArrayList<>(getSubmittedList());
+            cityItems.addAll(items);
+            submitList(cityItems);
         }
 
+        @Override
+        protected boolean areItemsTheSame(City oldItem, City newItem) {
+            return oldItem == newItem;
+        }
+
+        @Override
+        protected boolean areContentsTheSame(City oldItem, City newItem) {
+            return oldItem.name.equals(newItem.name);
+        }
+
+        @Override
+        protected long getItemKey(City item) {
+            return System.identityHashCode(item);
+        }
+
+
+        @Override
+        protected int getItemLayoutId(int viewType) {
+            return R.layout.item_country;
+        }
 
         @Override
         public MyHolder onCreateViewHolder(ViewGroup parent, int viewType) {
-            final LayoutInflater inflater = LayoutInflater.from(mContext);
-            final View view = inflater.inflate(R.layout.item_country, parent, false);
+            final View view = inflateItemView(parent, viewType);
             view.setBackgroundResource(R.drawable.item_transition);
             return new MyHolder(view);
         }
 
         @Override
         public void onBindViewHolder(MyHolder holder, int position) {
-            final City city = mCityItems.get(position);
+            final City city = getItem(position);
             holder.populateViews(city);
         }
 
         @Override
-        public int getItemCount() {
-            return mCityItems != null ? mCityItems.size() : 0;
-        }
-
-        @Override
-        public City getItem(int position) {
-            return mCityItems.get(position);
+        protected boolean onBindPlaceholderViewHolder(MyHolder holder, int position) {
+            holder.textView.setText(getItem(position).name);
+            Picasso.with(mContext).cancelRequest(holder.imageView);
+            holder.imageView.setImageDrawable(null);
+            return true;
         }
 
         static class MyHolder extends RecyclerAdapterView.ViewHolder {
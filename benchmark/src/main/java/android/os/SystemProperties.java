@@ -0,0 +1,57 @@
+package android.os;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Takes the place of the framework class, whose native methods aren't available on the JVM, so
+ * that {@link Build} can be loaded. The properties describe a Lollipop device, the API level
+ * the framework classes of the android-all jar come from.
+ */
+public class SystemProperties {
+
+    public static final int PROP_NAME_MAX = 31;
+    public static final int PROP_VALUE_MAX = 91;
+
+    private static final Map<String, String> PROPERTIES = new HashMap<>();
+
+    static {
+        PROPERTIES.put("ro.build.version.sdk", "21");
+        PROPERTIES.put("ro.build.version.release", "5.0");
+        PROPERTIES.put("ro.build.version.codename", "REL");
+        PROPERTIES.put("ro.build.version.all_codenames", "REL");
+        PROPERTIES.put("ro.product.cpu.abilist", "armeabi-v7a");
+        PROPERTIES.put("ro.product.cpu.abilist32", "armeabi-v7a");
+    }
+
+    public static String get(String key) {
+        return get(key, "");
+    }
+
+    public static String get(String key, String def) {
+        final String value = PROPERTIES.get(key);
+        return value != null ? value : def;
+    }
+
+    public static int getInt(String key, int def) {
+        final String value = PROPERTIES.get(key);
+        return value != null ? Integer.parseInt(value) : def;
+    }
+
+    public static long getLong(String key, long def) {
+        final String value = PROPERTIES.get(key);
+        return value != null ? Long.parseLong(value) : def;
+    }
+
+    public static boolean getBoolean(String key, boolean def) {
+        final String value = PROPERTIES.get(key);
+        return value != null ? Boolean.parseBoolean(value) : def;
+    }
+
+    public static void set(String key, String val) {
+        PROPERTIES.put(key, val);
+    }
+
+    public static void addChangeCallback(Runnable callback) {
+    }
+}
@@ -0,0 +1,21 @@
+package dalvik.system;
+
+/**
+ * Takes the place of the runtime class, whose methods are native, for the ABI checks done when
+ * {@link android.os.Build} is loaded.
+ */
+public final class VMRuntime {
+
+    private static final VMRuntime THE_ONE = new VMRuntime();
+
+    private VMRuntime() {
+    }
+
+    public static VMRuntime getRuntime() {
+        return THE_ONE;
+    }
+
+    public boolean is64Bit() {
+        return false;
+    }
+}
@@ -0,0 +1,51 @@
+package fr.ganfra.recycleradapterview;
+
+import android.view.ViewGroup;
+
+/**
+ * Data adapter with a fixed number of items and four view types, creating stub item views and
+ * binding nothing but a counter.
+ */
+class BenchmarkAdapter extends RecyclerAdapterView.Adapter<RecyclerAdapterView.ViewHolder> {
+
+    private final Object[] mItems;
+    int mBindCount;
+
+    BenchmarkAdapter(final int itemCount) {
+        mItems = new Object[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            mItems[i] = new Object();
+        }
+        setHasStableIds(true);
+    }
+
+    @Override
+    public Object getItem(int position) {
+        return mItems[position];
+    }
+
+    @Override
+    public int getItemCount() {
+        return mItems.length;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return position & 3;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
+    @Override
+    public RecyclerAdapterView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        return new RecyclerAdapterView.ViewHolder(Stubs.newItemView());
+    }
+
+    @Override
+    public void onBindViewHolder(RecyclerAdapterView.ViewHolder holder, int position) {
+        mBindCount++;
+    }
+}
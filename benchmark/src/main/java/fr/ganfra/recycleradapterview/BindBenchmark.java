@@ -0,0 +1,94 @@
+package fr.ganfra.recycleradapterview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binding of the data rows as the RecyclerView does it, through the payload bind of the adapters
+ * and the header and footer indirection, with the metrics timing each bind or not. The data
+ * adapter binds nothing, so only the cost added by the library is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BindBenchmark {
+
+    private static final int ITEM_COUNT = 1000;
+    private static final List<Object> PAYLOADS = Collections.singletonList(new Object());
+
+    @Param({"0", "2"})
+    public int headerCount;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private BenchmarkAdapter mDataAdapter;
+    private RecyclerAdapterView.Adapter<RecyclerAdapterView.ViewHolder> mAdapter;
+    private RecyclerAdapterView.ViewHolder[] mHolders;
+    private int mPosition;
+
+    @Setup
+    public void setUp() {
+        mDataAdapter = new BenchmarkAdapter(ITEM_COUNT);
+        if (headerCount > 0) {
+            final ArrayList<FixedViewRecyclerAdapter.FixedViewInfo> headerViews = new ArrayList<>();
+            for (int i = 0; i < headerCount; i++) {
+                headerViews.add(new FixedViewRecyclerAdapter.FixedViewInfo(null));
+            }
+            mAdapter = new FixedViewRecyclerAdapter<>(null, mDataAdapter, headerViews, new ArrayList<FixedViewRecyclerAdapter.FixedViewInfo>());
+        } else {
+            mAdapter = mDataAdapter;
+        }
+
+        final Stubs.Host host = Stubs.newHost(1080, 1920);
+        host.mStubAdapter = mAdapter;
+        if (metrics) {
+            Stubs.setField(host, RecyclerAdapterView.class, "mMetrics", new RecyclerAdapterViewMetrics());
+        }
+        mAdapter.onAttachedToRecyclerView(host);
+
+        // One holder per view type of the data adapter
+        mHolders = new RecyclerAdapterView.ViewHolder[4];
+        for (int viewType = 0; viewType < mHolders.length; viewType++) {
+            mHolders[viewType] = mAdapter.createViewHolder(host, viewType);
+        }
+    }
+
+    @Benchmark
+    public int bind() {
+        final int position = nextPosition();
+        mAdapter.bindViewHolder(mHolders[position & 3], position + headerCount);
+        return mDataAdapter.mBindCount;
+    }
+
+    @Benchmark
+    public int bindPayloads() {
+        final int position = nextPosition();
+        mAdapter.onBindViewHolder(mHolders[position & 3], position + headerCount, PAYLOADS);
+        return mDataAdapter.mBindCount;
+    }
+
+    private int nextPosition() {
+        if (++mPosition == ITEM_COUNT) {
+            mPosition = 0;
+        }
+        return mPosition;
+    }
+}
@@ -0,0 +1,100 @@
+package fr.ganfra.recycleradapterview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diff of two lists differing by {@code changePercent} percent of insertions, removals and
+ * content changes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiffBenchmark {
+
+    @Param({"100", "10000"})
+    public int itemCount;
+
+    @Param({"1", "10"})
+    public int changePercent;
+
+    private int[] mOldIds;
+    private int[] mNewIds;
+    private int[] mNewContents;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        mOldIds = new int[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            mOldIds[i] = i;
+        }
+        final int[] newIds = new int[itemCount * 2];
+        mNewContents = new int[itemCount * 2];
+        int count = 0;
+        for (int i = 0; i < itemCount; i++) {
+            final int change = random.nextInt(300);
+            if (change < changePercent) {
+                // Removed
+                continue;
+            } else if (change < changePercent * 2) {
+                mNewContents[count] = 0;
+                newIds[count++] = itemCount + i;
+            }
+            mNewContents[count] = change < changePercent * 3 ? 1 : 0;
+            newIds[count++] = i;
+        }
+        mNewIds = Arrays.copyOf(newIds, count);
+    }
+
+    @Benchmark
+    public int diff() {
+        return ListDiffer.diff(new ListDiffer.Callback() {
+            @Override
+            public int getOldListSize() {
+                return mOldIds.length;
+            }
+
+            @Override
+            public int getNewListSize() {
+                return mNewIds.length;
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                return mOldIds[oldPosition] == mNewIds[newPosition];
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                return mNewContents[newPosition] == 0;
+            }
+
+            @Override
+            public long getOldItemKey(int oldPosition) {
+                return mOldIds[oldPosition];
+            }
+
+            @Override
+            public long getNewItemKey(int newPosition) {
+                return mNewIds[newPosition];
+            }
+        }).getUpdateCount();
+    }
+}
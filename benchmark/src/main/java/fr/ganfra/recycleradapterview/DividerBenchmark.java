@@ -0,0 +1,103 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.GridLayoutManager;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drawing of the dividers of a screen of rows, with a drawable or a plain color, in a list or a
+ * grid, with the metrics timing the drawing or not.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DividerBenchmark {
+
+    private static final int WIDTH = 1080;
+    private static final int ROW_HEIGHT = 160;
+    private static final int DIVIDER_HEIGHT = 2;
+    private static final int SPAN_COUNT = 3;
+
+    @Param({"12", "48"})
+    public int childCount;
+
+    @Param({"drawable", "color"})
+    public String divider;
+
+    @Param({"linear", "grid"})
+    public String layout;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private RecyclerView.ItemDecoration mDecoration;
+    private DecorationTimer mDecorationTimer;
+    private Stubs.Host mHost;
+    private Stubs.DrawCanvas mCanvas;
+
+    @Setup
+    public void setUp() {
+        final boolean grid = "grid".equals(layout);
+        final int columnCount = grid ? SPAN_COUNT : 1;
+        final int columnWidth = WIDTH / columnCount;
+        final int height = (childCount + columnCount - 1) / columnCount * ROW_HEIGHT;
+
+        mHost = Stubs.newHost(WIDTH, height);
+        mHost.mStubLayoutManager = grid ? new GridLayoutManager(null, SPAN_COUNT) : new LinearLayoutManager(null);
+        final BenchmarkAdapter adapter = new BenchmarkAdapter(childCount);
+        mHost.mStubAdapter = adapter;
+
+        final RecyclerView.ViewHolder[] holders = new RecyclerView.ViewHolder[childCount];
+        for (int i = 0; i < childCount; i++) {
+            final RecyclerAdapterView.ViewHolder holder = adapter.createViewHolder(mHost, adapter.getItemViewType(i));
+            // Sets the position the divider rule is asked about
+            adapter.bindViewHolder(holder, i);
+            final int left = i % columnCount * columnWidth;
+            final int top = i / columnCount * ROW_HEIGHT;
+            ((Stubs.ItemView) holder.itemView).place(left, top, left + columnWidth - DIVIDER_HEIGHT, top + ROW_HEIGHT - DIVIDER_HEIGHT);
+            holders[i] = holder;
+        }
+        mHost.setChildren(holders);
+        mCanvas = Stubs.newCanvas(WIDTH, height);
+
+        final DividerItemDecoration decoration = new DividerItemDecoration(new Stubs.DividerDrawable(), DIVIDER_HEIGHT);
+        if ("color".equals(divider)) {
+            // The color constructor creates a Paint, which can't be done on the JVM
+            Stubs.setField(decoration, DividerItemDecoration.class, "mPaint", Stubs.newPaint());
+        }
+        mDecoration = decoration;
+        if (metrics) {
+            // Drawn between the markers like by RecyclerView once the metrics are enabled
+            mDecorationTimer = new DecorationTimer(new RecyclerAdapterViewMetrics());
+        }
+    }
+
+    @Benchmark
+    public int drawOver() {
+        if (mDecorationTimer == null) {
+            mDecoration.onDrawOver(mCanvas, mHost, null);
+            return mCanvas.mDrawCount;
+        }
+        mDecorationTimer.mStartMarker.onDrawOver(mCanvas, mHost, null);
+        mDecoration.onDrawOver(mCanvas, mHost, null);
+        mDecorationTimer.mEndMarker.onDrawOver(mCanvas, mHost, null);
+        return mCanvas.mDrawCount;
+    }
+}
@@ -0,0 +1,78 @@
+package fr.ganfra.recycleradapterview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Position mapping of the header and footer indirection, walking the positions like a scroll.
+ * Binding is measured by {@link BindBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FixedViewAdapterBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int itemCount;
+
+    @Param({"0", "2", "16"})
+    public int headerCount;
+
+    private FixedViewRecyclerAdapter<RecyclerAdapterView.ViewHolder> mAdapter;
+    private int mTotalCount;
+    private int mPosition;
+
+    @Setup
+    public void setUp() {
+        final ArrayList<FixedViewRecyclerAdapter.FixedViewInfo> headerViews = new ArrayList<>();
+        for (int i = 0; i < headerCount; i++) {
+            headerViews.add(new FixedViewRecyclerAdapter.FixedViewInfo(null));
+        }
+        final ArrayList<FixedViewRecyclerAdapter.FixedViewInfo> footerViews = new ArrayList<>();
+        footerViews.add(new FixedViewRecyclerAdapter.FixedViewInfo(null));
+        mAdapter = new FixedViewRecyclerAdapter<>(null, new BenchmarkAdapter(itemCount), headerViews, footerViews);
+        mTotalCount = mAdapter.getItemCount();
+    }
+
+    @Benchmark
+    public int getItemViewType() {
+        return mAdapter.getItemViewType(nextPosition());
+    }
+
+    @Benchmark
+    public long getItemId() {
+        return mAdapter.getItemId(nextPosition());
+    }
+
+    @Benchmark
+    public Object getItem() {
+        return mAdapter.getItem(nextPosition());
+    }
+
+    @Benchmark
+    public int getItemCount() {
+        return mAdapter.getItemCount();
+    }
+
+    private int nextPosition() {
+        if (++mPosition == mTotalCount) {
+            mPosition = 0;
+        }
+        return mPosition;
+    }
+}
@@ -0,0 +1,135 @@
+package fr.ganfra.recycleradapterview;
+
+import android.view.ViewGroup;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups of the indexes behind the composite adapter position mapping, the item id index and
+ * the section index.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int itemCount;
+
+    @Param({"4", "64", "1024"})
+    public int segmentCount;
+
+    private PrefixSumTree mSegments;
+    private LongIntMap mItemIds;
+    private SectionAdapter mSectionAdapter;
+    private int mPosition;
+
+    @Setup
+    public void setUp() {
+        mSegments = new PrefixSumTree();
+        for (int i = 0; i < segmentCount; i++) {
+            mSegments.insert(i, itemCount / segmentCount);
+        }
+        mItemIds = new LongIntMap(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            mItemIds.put(i * 31L, i);
+        }
+        mSectionAdapter = new SectionAdapter(itemCount, Math.max(1, itemCount / segmentCount));
+        mSectionAdapter.getSectionCount();
+    }
+
+    @Benchmark
+    public int segmentForPosition() {
+        final int position = nextPosition();
+        final int segment = mSegments.indexOf(position);
+        return position - mSegments.prefixSum(Math.min(segment, mSegments.size()));
+    }
+
+    @Benchmark
+    public int resizeSegment() {
+        final int segment = nextPosition() % segmentCount;
+        mSegments.add(segment, 1);
+        mSegments.add(segment, -1);
+        return mSegments.total();
+    }
+
+    @Benchmark
+    public int positionForItemId() {
+        return mItemIds.get(nextPosition() * 31L, -1);
+    }
+
+    @Benchmark
+    public int sectionForPosition() {
+        return mSectionAdapter.getSectionForPosition(nextPosition());
+    }
+
+    @Benchmark
+    public int insertInSection() {
+        final int position = nextPosition();
+        mSectionAdapter.notifyItemRangeInserted(position, 1);
+        mSectionAdapter.notifyItemRangeRemoved(position, 1);
+        return mSectionAdapter.getSectionCount();
+    }
+
+    private int nextPosition() {
+        if (++mPosition == itemCount) {
+            mPosition = 0;
+        }
+        return mPosition;
+    }
+
+    /**
+     * Sections of {@code sectionSize} items. The item count doesn't change, so an insertion
+     * followed by a removal at the same position leaves the index unchanged.
+     */
+    private static class SectionAdapter extends SectionedAdapter<RecyclerAdapterView.ViewHolder> {
+
+        private final int mItemCount;
+        private final int mSectionSize;
+
+        SectionAdapter(final int itemCount, final int sectionSize) {
+            mItemCount = itemCount;
+            mSectionSize = sectionSize;
+        }
+
+        @Override
+        protected long getSectionKey(int position) {
+            return position / mSectionSize;
+        }
+
+        @Override
+        protected Object getSectionLabel(int position) {
+            return null;
+        }
+
+        @Override
+        public Object getItem(int position) {
+            return null;
+        }
+
+        @Override
+        public int getItemCount() {
+            return mItemCount;
+        }
+
+        @Override
+        public RecyclerAdapterView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            throw new UnsupportedOperationException("Views can't be created on the JVM");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package fr.ganfra.recycleradapterview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notifications of the data adapter going through the header and footer indirection to the
+ * empty view observer of a RecyclerAdapterView, with the metrics counting them or not, and the
+ * header add and remove cycle.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int itemCount;
+
+    @Param({"0", "2", "16"})
+    public int headerCount;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private BenchmarkAdapter mDataAdapter;
+    private FixedViewRecyclerAdapter<RecyclerAdapterView.ViewHolder> mAdapter;
+    private ArrayList<FixedViewRecyclerAdapter.FixedViewInfo> mHeaderViews;
+
+    @Setup
+    public void setUp() {
+        mHeaderViews = new ArrayList<>();
+        for (int i = 0; i < headerCount; i++) {
+            mHeaderViews.add(new FixedViewRecyclerAdapter.FixedViewInfo(null));
+        }
+        mDataAdapter = new BenchmarkAdapter(itemCount);
+        mAdapter = new FixedViewRecyclerAdapter<>(null, mDataAdapter, mHeaderViews, new ArrayList<FixedViewRecyclerAdapter.FixedViewInfo>());
+        mAdapter.registerWrapperDataObserver();
+
+        final Stubs.Host host = Stubs.newHost(1080, 1920);
+        host.mStubAdapter = mAdapter;
+        if (metrics) {
+            Stubs.setField(host, RecyclerAdapterView.class, "mMetrics", new RecyclerAdapterViewMetrics());
+        }
+        final RecyclerAdapterView.EmptyViewObserver observer = host.new EmptyViewObserver();
+        mAdapter.registerAdapterDataObserver(observer);
+        observer.onChanged();
+        host.setEmptyView(Stubs.newItemView());
+    }
+
+    @Benchmark
+    public void insertAndRemove() {
+        mDataAdapter.notifyItemRangeInserted(itemCount / 2, 1);
+        mDataAdapter.notifyItemRangeRemoved(itemCount / 2, 1);
+    }
+
+    @Benchmark
+    public void change() {
+        mDataAdapter.notifyItemRangeChanged(itemCount / 2, 1);
+    }
+
+    @Benchmark
+    public void move() {
+        mDataAdapter.notifyItemMoved(0, itemCount - 1);
+    }
+
+    @Benchmark
+    public void dataSetChanged() {
+        mDataAdapter.notifyDataSetChanged();
+    }
+
+    @Benchmark
+    public void addAndRemoveHeader() {
+        mHeaderViews.add(new FixedViewRecyclerAdapter.FixedViewInfo(null));
+        mAdapter.notifyHeaderViewInserted(mHeaderViews.size() - 1);
+        mHeaderViews.remove(mHeaderViews.size() - 1);
+        mAdapter.notifyHeaderViewRemoved(mHeaderViews.size());
+    }
+}
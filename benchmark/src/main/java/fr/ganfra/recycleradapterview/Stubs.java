@@ -0,0 +1,279 @@
+package fr.ganfra.recycleradapterview;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Trace;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.lang.reflect.Field;
+
+import sun.misc.Unsafe;
+
+/**
+ * Framework objects the library can run against on the JVM.
+ * <p/>
+ * The constructors of the views, the canvas and the paint reach native code, so these are
+ * allocated without running them, field initializers included : only the methods overridden
+ * here and the plain Java ones of the framework can be called on them.
+ */
+final class Stubs {
+
+    private static final Unsafe UNSAFE;
+
+    static {
+        try {
+            final Field unsafe = Unsafe.class.getDeclaredField("theUnsafe");
+            unsafe.setAccessible(true);
+            UNSAFE = (Unsafe) unsafe.get(null);
+            // Tracing disabled, the enabled tags are otherwise read from native code
+            setField(null, Trace.class, "sEnabledTags", 0L);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Stubs() {
+    }
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    static <T> T allocate(final Class<T> type) {
+        try {
+            return type.cast(UNSAFE.allocateInstance(type));
+        } catch (InstantiationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Sets a private field, for the state the stubs can't reach through the library API.
+     */
+    static void setField(final Object target, final Class<?> owner, final String name, final Object value) {
+        try {
+            final Field field = owner.getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static ItemView newItemView() {
+        final ItemView view = allocate(ItemView.class);
+        view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 0));
+        return view;
+    }
+
+    static Host newHost(final int width, final int height) {
+        final Host host = allocate(Host.class);
+        host.setSize(width, height);
+        host.mChildren = new View[0];
+        return host;
+    }
+
+    static DrawCanvas newCanvas(final int width, final int height) {
+        final DrawCanvas canvas = allocate(DrawCanvas.class);
+        canvas.mClipBounds = new Rect(0, 0, width, height);
+        return canvas;
+    }
+
+    /**
+     * Paint of the plain color dividers, on which nothing can be called.
+     */
+    static Paint newPaint() {
+        return allocate(Paint.class);
+    }
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    /**
+     * Item view laid out with {@link #place(int, int, int, int)}, with no translation.
+     */
+    static class ItemView extends View {
+
+        RecyclerView.ViewHolder mHolder;
+
+        private ItemView() {
+            super(null);
+        }
+
+        void place(final int left, final int top, final int right, final int bottom) {
+            mLeft = left;
+            mTop = top;
+            mRight = right;
+            mBottom = bottom;
+        }
+
+        @Override
+        public void setLayoutParams(ViewGroup.LayoutParams params) {
+            mLayoutParams = params;
+        }
+
+        @Override
+        public float getTranslationX() {
+            return 0;
+        }
+
+        @Override
+        public float getTranslationY() {
+            return 0;
+        }
+
+        @Override
+        public void setVisibility(int visibility) {
+        }
+
+        // Called by the item listeners the view holders set, they reach the accessibility manager
+
+        @Override
+        public void setClickable(boolean clickable) {
+        }
+
+        @Override
+        public void setLongClickable(boolean longClickable) {
+        }
+    }
+
+    /**
+     * RecyclerAdapterView without padding, whose adapter, layout manager and children are set by
+     * the benchmark instead of going through the layout.
+     */
+    static class Host extends RecyclerAdapterView {
+
+        RecyclerView.Adapter mStubAdapter;
+        RecyclerView.LayoutManager mStubLayoutManager;
+        View[] mChildren;
+
+        private Host() {
+            super(null);
+        }
+
+        void setSize(final int width, final int height) {
+            mRight = width;
+            mBottom = height;
+        }
+
+        void setChildren(final RecyclerView.ViewHolder[] holders) {
+            mChildren = new View[holders.length];
+            for (int i = 0; i < holders.length; i++) {
+                mChildren[i] = holders[i].itemView;
+                ((ItemView) holders[i].itemView).mHolder = holders[i];
+            }
+        }
+
+        @Override
+        public RecyclerView.Adapter getAdapter() {
+            return mStubAdapter;
+        }
+
+        @Override
+        public RecyclerView.LayoutManager getLayoutManager() {
+            return mStubLayoutManager;
+        }
+
+        @Override
+        public int getChildCount() {
+            return mChildren.length;
+        }
+
+        @Override
+        public View getChildAt(int index) {
+            return mChildren[index];
+        }
+
+        @Override
+        public RecyclerView.ViewHolder getChildViewHolder(View child) {
+            return ((ItemView) child).mHolder;
+        }
+
+        @Override
+        public int getPaddingLeft() {
+            return 0;
+        }
+
+        @Override
+        public int getPaddingTop() {
+            return 0;
+        }
+
+        @Override
+        public int getPaddingRight() {
+            return 0;
+        }
+
+        @Override
+        public int getPaddingBottom() {
+            return 0;
+        }
+
+        @Override
+        public void setVisibility(int visibility) {
+        }
+    }
+
+    /**
+     * Canvas counting the draw calls, clipped to its size.
+     */
+    static class DrawCanvas extends Canvas {
+
+        Rect mClipBounds;
+        int mDrawCount;
+
+        private DrawCanvas() {
+        }
+
+        @Override
+        public boolean getClipBounds(Rect bounds) {
+            bounds.set(mClipBounds);
+            return true;
+        }
+
+        @Override
+        public void drawLines(float[] pts, int offset, int count, Paint paint) {
+            mDrawCount++;
+        }
+
+        @Override
+        public void drawRect(Rect r, Paint paint) {
+            mDrawCount++;
+        }
+    }
+
+    /**
+     * Divider drawn as a rect of its bounds, like a ColorDrawable.
+     */
+    static class DividerDrawable extends Drawable {
+
+        @Override
+        public void draw(Canvas canvas) {
+            canvas.drawRect(getBounds(), null);
+        }
+
+        @Override
+        public void setAlpha(int alpha) {
+        }
+
+        @Override
+        public void setColorFilter(ColorFilter cf) {
+        }
+
+        @Override
+        public int getOpacity() {
+            return PixelFormat.OPAQUE;
+        }
+    }
+}
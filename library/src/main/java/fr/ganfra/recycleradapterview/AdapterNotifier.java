@@ -0,0 +1,46 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+
+/**
+ * Observer notifying the observers of an adapter of the updates dispatched to it, so the updates
+ * an adapter computes can be dispatched to an other observer instead.
+ */
+class AdapterNotifier extends RecyclerView.AdapterDataObserver {
+
+    private final RecyclerView.Adapter mAdapter;
+
+    AdapterNotifier(final RecyclerView.Adapter adapter) {
+        mAdapter = adapter;
+    }
+
+    @Override
+    public void onChanged() {
+        mAdapter.notifyDataSetChanged();
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+        mAdapter.notifyItemRangeChanged(positionStart, itemCount);
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+        mAdapter.notifyItemRangeChanged(positionStart, itemCount, payload);
+    }
+
+    @Override
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        mAdapter.notifyItemRangeInserted(positionStart, itemCount);
+    }
+
+    @Override
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        mAdapter.notifyItemRangeRemoved(positionStart, itemCount);
+    }
+
+    @Override
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        OffsetAdapterDataObserver.notifyItemRangeMoved(mAdapter, fromPosition, toPosition, itemCount);
+    }
+}
@@ -0,0 +1,320 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseIntArray;
+import android.view.View;
+
+import java.util.ArrayList;
+
+/**
+ * Recycled view pool resizing the capacity of each view type from what the lists using it
+ * actually do :
+ * <ul>
+ * <li>a type that had to create holders since the last resize grows to the peak number of
+ * visible holders of that type, plus one ;</li>
+ * <li>a type whose pooled holders were never all used since the last resize shrinks by the
+ * lowest number of holders it had in the pool in the meantime ;</li>
+ * <li>the capacities are then scaled down to fit in {@link #setMaxTotalCapacity(int) the total capacity}.</li>
+ * </ul>
+ * Lists resize the pool when their scroll settles. The capacities are shrunk by
+ * {@link #onTrimMemory(int)}, to be called from the component callbacks of the application.
+ * Must only be used from the main thread.
+ */
+public class AdaptiveRecycledViewPool extends SharedRecycledViewPool {
+
+    /*
+     * **********************************************************************************
+     * CONSTANTS
+     * **********************************************************************************
+     */
+
+    public static final int REASON_MISSES = 0;
+    public static final int REASON_UNUSED = 1;
+    public static final int REASON_TOTAL_CAPACITY = 2;
+    public static final int REASON_TRIM_MEMORY = 3;
+
+    private static final int DEFAULT_MAX_TOTAL_CAPACITY = 64;
+    private static final int MIN_CAPACITY = 1;
+
+    // ComponentCallbacks2 levels, not available on all the supported versions
+    private static final int TRIM_MEMORY_RUNNING_LOW = 10;
+    private static final int TRIM_MEMORY_MODERATE = 60;
+
+    /*
+     * **********************************************************************************
+     * ATTRIBUTES
+     * **********************************************************************************
+     */
+
+    private final SparseIntArray mCreateCounts = new SparseIntArray();
+    private final SparseIntArray mReuseCounts = new SparseIntArray();
+    private final SparseIntArray mWindowCreateCounts = new SparseIntArray();
+    private final SparseIntArray mLowWaterCounts = new SparseIntArray();
+    private final SparseIntArray mVisibleCounts = new SparseIntArray();
+    private final SparseIntArray mPeakVisibleCounts = new SparseIntArray();
+    private final ArrayList<HostListener> mHostListeners = new ArrayList<>();
+
+    private int mMaxTotalCapacity = DEFAULT_MAX_TOTAL_CAPACITY;
+    private OnPoolResizeListener mOnPoolResizeListener;
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    /**
+     * Maximum number of holders the pool may keep, all view types included.
+     */
+    public void setMaxTotalCapacity(final int maxTotalCapacity) {
+        mMaxTotalCapacity = maxTotalCapacity;
+        fitInTotalCapacity();
+    }
+
+    public int getMaxTotalCapacity() {
+        return mMaxTotalCapacity;
+    }
+
+    public void setOnPoolResizeListener(final OnPoolResizeListener onPoolResizeListener) {
+        mOnPoolResizeListener = onPoolResizeListener;
+    }
+
+    /**
+     * @return the number of times a holder of this type was missing from the pool and had to be created
+     */
+    public int getCreateCount(final int viewType) {
+        return mCreateCounts.get(viewType);
+    }
+
+    /**
+     * @return the number of times a holder of this type was taken from the pool
+     */
+    public int getReuseCount(final int viewType) {
+        return mReuseCounts.get(viewType);
+    }
+
+    /**
+     * @return the highest number of holders of this type attached at the same time, all lists included
+     */
+    public int getPeakVisibleCount(final int viewType) {
+        return mPeakVisibleCounts.get(viewType);
+    }
+
+    /**
+     * Updates the capacity of each view type from the statistics gathered since the last resize.
+     */
+    public void resize() {
+        for (int i = 0; i < mWindowCreateCounts.size(); i++) {
+            final int viewType = mWindowCreateCounts.keyAt(i);
+            // Header and footer types keep their capacity, their views are never shared
+            if (mWindowCreateCounts.valueAt(i) > 0 && !FixedViewRecyclerAdapter.isFixedViewType(viewType)) {
+                final int capacity = mPeakVisibleCounts.get(viewType) + 1;
+                if (capacity > getCapacity(viewType)) {
+                    changeCapacity(viewType, capacity, REASON_MISSES);
+                }
+            }
+        }
+        for (int i = 0; i < mLowWaterCounts.size(); i++) {
+            final int viewType = mLowWaterCounts.keyAt(i);
+            final int unused = mLowWaterCounts.valueAt(i);
+            if (unused > 0 && mWindowCreateCounts.get(viewType) == 0) {
+                changeCapacity(viewType, Math.max(MIN_CAPACITY, getCapacity(viewType) - unused), REASON_UNUSED);
+            }
+        }
+        fitInTotalCapacity();
+        startWindow();
+    }
+
+    /**
+     * Shrinks the pool under memory pressure : the capacities are halved from
+     * {@code TRIM_MEMORY_RUNNING_LOW} and the pool is emptied from {@code TRIM_MEMORY_MODERATE}.
+     *
+     * @param level a {@code ComponentCallbacks2.TRIM_MEMORY_*} level
+     */
+    public void onTrimMemory(final int level) {
+        if (level < TRIM_MEMORY_RUNNING_LOW) {
+            return;
+        }
+        final boolean empty = level >= TRIM_MEMORY_MODERATE;
+        final SparseIntArray capacities = getCapacities();
+        for (int i = 0; i < capacities.size(); i++) {
+            final int capacity = capacities.valueAt(i);
+            final int newCapacity = empty ? MIN_CAPACITY : Math.max(MIN_CAPACITY, capacity / 2);
+            if (newCapacity < capacity) {
+                changeCapacity(capacities.keyAt(i), newCapacity, REASON_TRIM_MEMORY);
+            }
+        }
+        if (empty) {
+            clear();
+        }
+        startWindow();
+    }
+
+    @Override
+    public void setMaxRecycledViews(int viewType, int max) {
+        super.setMaxRecycledViews(viewType, max);
+        if (max == 0) {
+            // The type is not pooled anymore, resize() must not bring it back
+            forgetStatistics(viewType);
+        }
+    }
+
+    @Override
+    void removeViewType(final int viewType) {
+        super.removeViewType(viewType);
+        forgetStatistics(viewType);
+    }
+
+    @Override
+    public RecyclerView.ViewHolder getRecycledView(int viewType) {
+        final RecyclerView.ViewHolder holder = super.getRecycledView(viewType);
+        if (holder != null) {
+            mReuseCounts.put(viewType, mReuseCounts.get(viewType) + 1);
+            final int count = getRecycledViewCount(viewType);
+            if (count < mLowWaterCounts.get(viewType)) {
+                mLowWaterCounts.put(viewType, count);
+            }
+        } else {
+            mCreateCounts.put(viewType, mCreateCounts.get(viewType) + 1);
+            mWindowCreateCounts.put(viewType, mWindowCreateCounts.get(viewType) + 1);
+            mLowWaterCounts.put(viewType, 0);
+        }
+        return holder;
+    }
+
+    /*
+     * **********************************************************************************
+     * HOSTS
+     * **********************************************************************************
+     */
+
+    void addHost(final RecyclerView host) {
+        final HostListener listener = new HostListener(host);
+        mHostListeners.add(listener);
+        host.addOnChildAttachStateChangeListener(listener);
+        for (int i = 0; i < host.getChildCount(); i++) {
+            listener.onChildViewAttachedToWindow(host.getChildAt(i));
+        }
+    }
+
+    void removeHost(final RecyclerView host) {
+        for (int i = mHostListeners.size() - 1; i >= 0; i--) {
+            final HostListener listener = mHostListeners.get(i);
+            if (listener.mHost == host) {
+                host.removeOnChildAttachStateChangeListener(listener);
+                for (int j = 0; j < host.getChildCount(); j++) {
+                    listener.onChildViewDetachedFromWindow(host.getChildAt(j));
+                }
+                mHostListeners.remove(i);
+            }
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private void forgetStatistics(final int viewType) {
+        mCreateCounts.delete(viewType);
+        mReuseCounts.delete(viewType);
+        mWindowCreateCounts.delete(viewType);
+        mLowWaterCounts.delete(viewType);
+        mPeakVisibleCounts.delete(viewType);
+        if (mVisibleCounts.get(viewType) == 0) {
+            mVisibleCounts.delete(viewType);
+        }
+    }
+
+    private void startWindow() {
+        mWindowCreateCounts.clear();
+        mLowWaterCounts.clear();
+        // The low water mark of a type missing here is 0 : it had no pooled holder when the window started
+        final SparseIntArray capacities = getCapacities();
+        for (int i = 0; i < capacities.size(); i++) {
+            final int viewType = capacities.keyAt(i);
+            mLowWaterCounts.put(viewType, getRecycledViewCount(viewType));
+        }
+    }
+
+    private void fitInTotalCapacity() {
+        final SparseIntArray capacities = getCapacities();
+        int total = 0;
+        for (int i = 0; i < capacities.size(); i++) {
+            total += capacities.valueAt(i);
+        }
+        if (total <= mMaxTotalCapacity) {
+            return;
+        }
+        for (int i = 0; i < capacities.size(); i++) {
+            final int capacity = capacities.valueAt(i);
+            final int newCapacity = Math.max(MIN_CAPACITY, (int) ((long) capacity * mMaxTotalCapacity / total));
+            if (newCapacity < capacity) {
+                changeCapacity(capacities.keyAt(i), newCapacity, REASON_TOTAL_CAPACITY);
+            }
+        }
+    }
+
+    private void changeCapacity(final int viewType, final int capacity, final int reason) {
+        final int oldCapacity = getCapacity(viewType);
+        if (capacity == oldCapacity) {
+            return;
+        }
+        setCapacity(viewType, capacity);
+        if (mOnPoolResizeListener != null) {
+            mOnPoolResizeListener.onCapacityChanged(viewType, oldCapacity, capacity, reason);
+        }
+    }
+
+    private void onHolderAttached(final int viewType) {
+        final int visible = mVisibleCounts.get(viewType) + 1;
+        mVisibleCounts.put(viewType, visible);
+        if (visible > mPeakVisibleCounts.get(viewType)) {
+            mPeakVisibleCounts.put(viewType, visible);
+        }
+    }
+
+    private void onHolderDetached(final int viewType) {
+        final int visible = mVisibleCounts.get(viewType) - 1;
+        // Not kept at 0, so the types of removed header views don't pile up
+        if (visible <= 0) {
+            mVisibleCounts.delete(viewType);
+        } else {
+            mVisibleCounts.put(viewType, Math.max(0, visible));
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    public interface OnPoolResizeListener {
+
+        /**
+         * @param reason one of the REASON_* constants
+         */
+        void onCapacityChanged(int viewType, int oldCapacity, int newCapacity, int reason);
+    }
+
+    private class HostListener implements RecyclerView.OnChildAttachStateChangeListener {
+
+        private final RecyclerView mHost;
+
+        HostListener(final RecyclerView host) {
+            mHost = host;
+        }
+
+        @Override
+        public void onChildViewAttachedToWindow(View view) {
+            onHolderAttached(mHost.getChildViewHolder(view).getItemViewType());
+        }
+
+        @Override
+        public void onChildViewDetachedFromWindow(View view) {
+            onHolderDetached(mHost.getChildViewHolder(view).getItemViewType());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package fr.ganfra.recycleradapterview;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Inflates item views on a worker thread into a ready queue per view type. The UI thread takes
+ * the views from the queue and only inflates them itself when the queue is empty.
+ * <p/>
+ * Views are created off the main thread but only attached from it. Layouts containing views
+ * that need a looper when they are constructed fail to inflate in the background and are then
+ * inflated synchronously.
+ */
+class AsyncItemInflater {
+
+    private static ExecutorService sInflateExecutor;
+
+    private final Executor mExecutor;
+    private final HashMap<Integer, ArrayDeque<View>> mReadyViews = new HashMap<>();
+    private volatile int mGeneration;
+
+    private int mHitCount;
+    private int mMissCount;
+
+    AsyncItemInflater() {
+        this(getDefaultExecutor());
+    }
+
+    AsyncItemInflater(final Executor executor) {
+        mExecutor = executor;
+    }
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    void inflateAsync(final ViewGroup parent, final int layoutId, final int viewType, final int count) {
+        final LayoutInflater inflater = getInflater(parent, true);
+        final int generation = mGeneration;
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count && generation == mGeneration; i++) {
+                    final View view;
+                    try {
+                        view = inflate(inflater, layoutId, parent);
+                    } catch (RuntimeException e) {
+                        return;
+                    }
+                    synchronized (mReadyViews) {
+                        if (generation != mGeneration) {
+                            return;
+                        }
+                        ArrayDeque<View> views = mReadyViews.get(viewType);
+                        if (views == null) {
+                            views = new ArrayDeque<>(count);
+                            mReadyViews.put(viewType, views);
+                        }
+                        views.add(view);
+                    }
+                }
+            }
+        });
+    }
+
+    View obtain(final ViewGroup parent, final int layoutId, final int viewType) {
+        View view = null;
+        synchronized (mReadyViews) {
+            final ArrayDeque<View> views = mReadyViews.get(viewType);
+            if (views != null) {
+                view = views.poll();
+            }
+        }
+        if (view != null) {
+            mHitCount++;
+            return view;
+        }
+        mMissCount++;
+        return inflate(getInflater(parent, false), layoutId, parent);
+    }
+
+    int getReadyCount(final int viewType) {
+        synchronized (mReadyViews) {
+            final ArrayDeque<View> views = mReadyViews.get(viewType);
+            return views != null ? views.size() : 0;
+        }
+    }
+
+    int getHitCount() {
+        return mHitCount;
+    }
+
+    int getMissCount() {
+        return mMissCount;
+    }
+
+    void resetCounts() {
+        mHitCount = 0;
+        mMissCount = 0;
+    }
+
+    /**
+     * Drops the ready views and the inflations still in progress.
+     */
+    void clear() {
+        synchronized (mReadyViews) {
+            mGeneration++;
+            mReadyViews.clear();
+        }
+    }
+
+    /**
+     * @param worker true for the inflater of the worker thread : LayoutInflater is not thread
+     *               safe, the worker uses its own copy
+     */
+    LayoutInflater getInflater(final ViewGroup parent, final boolean worker) {
+        final LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+        return worker ? inflater.cloneInContext(parent.getContext()) : inflater;
+    }
+
+    View inflate(final LayoutInflater inflater, final int layoutId, final ViewGroup parent) {
+        return inflater.inflate(layoutId, parent, false);
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private static synchronized Executor getDefaultExecutor() {
+        if (sInflateExecutor == null) {
+            sInflateExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "RecyclerAdapterView-inflate");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sInflateExecutor;
+    }
+}
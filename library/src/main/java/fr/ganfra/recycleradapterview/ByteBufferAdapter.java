@@ -0,0 +1,249 @@
+package fr.ganfra.recycleradapterview;
+
+import android.database.CharArrayBuffer;
+import android.view.View;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only adapter over records stored in a {@link ByteBuffer}, usually a file mapped with
+ * {@link #map(File)} or a direct buffer, so the rows take no heap whatever their number.
+ * <p/>
+ * Records either have a fixed size, or start at the offsets of an index {@link IntBuffer},
+ * each ending where the next one starts. Each {@link RecordViewHolder} owns a {@link Record}
+ * flyweight, moved onto the bound row before {@link #onBindRecord(RecordViewHolder, Record)} :
+ * fields are decoded at bind time, only those the row displays.
+ */
+public abstract class ByteBufferAdapter<VH extends ByteBufferAdapter.RecordViewHolder> extends RecyclerAdapterView.Adapter<VH> {
+
+    private final ByteBuffer mBuffer;
+    private final int mRecordSize;
+    private final IntBuffer mOffsets;
+    private final int mFirstOffset;
+    private final int mItemCount;
+
+    /*
+     * **********************************************************************************
+     * CONSTRUCTORS
+     * **********************************************************************************
+     */
+
+    /**
+     * Records of {@code recordSize} bytes, from the position of the buffer to its limit.
+     */
+    public ByteBufferAdapter(final ByteBuffer buffer, final int recordSize) {
+        if (recordSize <= 0) {
+            throw new IllegalArgumentException("The record size must be positive : " + recordSize);
+        }
+        mBuffer = buffer;
+        mRecordSize = recordSize;
+        mOffsets = null;
+        mFirstOffset = buffer.position();
+        mItemCount = buffer.remaining() / recordSize;
+    }
+
+    /**
+     * One record per remaining offset of {@code offsets}, each ending at the next offset or at
+     * the limit of the buffer for the last one.
+     */
+    public ByteBufferAdapter(final ByteBuffer buffer, final IntBuffer offsets) {
+        mBuffer = buffer;
+        mRecordSize = 0;
+        mOffsets = offsets;
+        mFirstOffset = offsets.position();
+        mItemCount = offsets.remaining();
+    }
+
+    /*
+     * **********************************************************************************
+     * ABSTRACT METHODS
+     * **********************************************************************************
+     */
+
+    /**
+     * @param record the flyweight of the holder, on the record of the bound position
+     */
+    protected abstract void onBindRecord(VH holder, Record record);
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    /**
+     * Maps a file in memory, read only. The mapping stays valid once the file is closed.
+     */
+    public static MappedByteBuffer map(final File file) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, randomAccessFile.length());
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    @Override
+    public int getItemCount() {
+        return mItemCount;
+    }
+
+    /**
+     * @return a new {@link Record} on the item : use {@link #getRecord(int, Record)} to reuse one
+     */
+    @Override
+    public Record getItem(int position) {
+        return getRecord(position, new Record());
+    }
+
+    /**
+     * Moves {@code record} onto the record at {@code position}, without allocating.
+     *
+     * @return {@code record}
+     */
+    public Record getRecord(final int position, final Record record) {
+        if (position < 0 || position >= mItemCount) {
+            throw new IndexOutOfBoundsException("Position " + position + " out of [0, " + mItemCount + ")");
+        }
+        if (mOffsets == null) {
+            record.moveTo(mBuffer, mFirstOffset + position * mRecordSize, mRecordSize);
+        } else {
+            final int start = mOffsets.get(mFirstOffset + position);
+            final int end = position + 1 < mItemCount ? mOffsets.get(mFirstOffset + position + 1) : mBuffer.limit();
+            record.moveTo(mBuffer, start, end - start);
+        }
+        return record;
+    }
+
+    @Override
+    public void onBindViewHolder(VH holder, int position) {
+        onBindRecord(holder, getRecord(position, holder.mRecord));
+    }
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    public static class RecordViewHolder extends RecyclerAdapterView.ViewHolder {
+
+        final Record mRecord = new Record();
+
+        public RecordViewHolder(final View itemView) {
+            super(itemView);
+        }
+    }
+
+    /**
+     * Window on one record of the buffer. Fields are read with absolute gets at an offset from the
+     * start of the record, in the byte order of the buffer.
+     */
+    public static final class Record {
+
+        private static final char REPLACEMENT_CHAR = '\uFFFD';
+        // Character.highSurrogate() needs API 19
+        private static final int HIGH_SURROGATE_OFFSET = Character.MIN_HIGH_SURROGATE - (Character.MIN_SUPPLEMENTARY_CODE_POINT >>> 10);
+
+        private ByteBuffer mBuffer;
+        private int mStart;
+        private int mLength;
+
+        public Record() {
+        }
+
+        void moveTo(final ByteBuffer buffer, final int start, final int length) {
+            mBuffer = buffer;
+            mStart = start;
+            mLength = length;
+        }
+
+        /**
+         * @return the offset of the record in the buffer
+         */
+        public int getStart() {
+            return mStart;
+        }
+
+        public int getLength() {
+            return mLength;
+        }
+
+        public byte getByte(final int offset) {
+            return mBuffer.get(index(offset, 1));
+        }
+
+        public short getShort(final int offset) {
+            return mBuffer.getShort(index(offset, 2));
+        }
+
+        public int getInt(final int offset) {
+            return mBuffer.getInt(index(offset, 4));
+        }
+
+        public long getLong(final int offset) {
+            return mBuffer.getLong(index(offset, 8));
+        }
+
+        public float getFloat(final int offset) {
+            return mBuffer.getFloat(index(offset, 4));
+        }
+
+        public double getDouble(final int offset) {
+            return mBuffer.getDouble(index(offset, 8));
+        }
+
+        /**
+         * Decodes {@code byteLength} bytes of UTF-8 into the buffer, growing its array if needed.
+         * The buffer can be kept by the holder and shown with
+         * {@link android.widget.TextView#setText(char[], int, int)}, like
+         * {@link android.database.Cursor#copyStringToBuffer(int, CharArrayBuffer)}.
+         */
+        public void copyUtf8ToBuffer(final int offset, final int byteLength, final CharArrayBuffer buffer) {
+            int index = index(offset, byteLength);
+            final int end = index + byteLength;
+            if (buffer.data == null || buffer.data.length < byteLength) {
+                // A UTF-8 byte never decodes to more than one char
+                buffer.data = new char[byteLength];
+            }
+            final char[] chars = buffer.data;
+            int count = 0;
+            while (index < end) {
+                final int b = mBuffer.get(index++) & 0xFF;
+                if (b < 0x80) {
+                    chars[count++] = (char) b;
+                } else if (b < 0xC0) {
+                    // Continuation byte without a leading byte
+                    chars[count++] = REPLACEMENT_CHAR;
+                } else if (b < 0xE0 && index < end) {
+                    chars[count++] = (char) ((b & 0x1F) << 6 | mBuffer.get(index++) & 0x3F);
+                } else if (b < 0xF0 && index + 1 < end) {
+                    chars[count++] = (char) ((b & 0x0F) << 12 | (mBuffer.get(index++) & 0x3F) << 6 | mBuffer.get(index++) & 0x3F);
+                } else if (index + 2 < end) {
+                    final int codePoint = (b & 0x07) << 18 | (mBuffer.get(index++) & 0x3F) << 12
+                            | (mBuffer.get(index++) & 0x3F) << 6 | mBuffer.get(index++) & 0x3F;
+                    chars[count++] = (char) ((codePoint >>> 10) + HIGH_SURROGATE_OFFSET);
+                    chars[count++] = (char) ((codePoint & 0x3FF) + Character.MIN_LOW_SURROGATE);
+                } else {
+                    // Truncated sequence
+                    chars[count++] = REPLACEMENT_CHAR;
+                    index = end;
+                }
+            }
+            buffer.sizeCopied = count;
+        }
+
+        private int index(final int offset, final int size) {
+            if (offset < 0 || offset + size > mLength) {
+                throw new IndexOutOfBoundsException("Field [" + offset + ", " + (offset + size) + ") out of the record of " + mLength + " bytes");
+            }
+            return mStart + offset;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+
+/**
+ * Checked items of a {@link RecyclerAdapterView} choice mode, by position in the data adapter.
+ * <p/>
+ * Registered on the data adapter, the checked positions follow the items through its range
+ * notifications. A data set change clears them : positions can't be matched to the new data.
+ */
+class ChoiceState extends RecyclerView.AdapterDataObserver {
+
+    private final PositionBitSet mCheckStates = new PositionBitSet();
+    private int mChoiceMode = RecyclerAdapterView.CHOICE_MODE_NONE;
+    private RecyclerView.Adapter mAdapter;
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    int getChoiceMode() {
+        return mChoiceMode;
+    }
+
+    /**
+     * Changes the mode, clearing the checked items.
+     */
+    void setChoiceMode(final int choiceMode) {
+        mCheckStates.clear();
+        mChoiceMode = choiceMode;
+    }
+
+    RecyclerView.Adapter getAdapter() {
+        return mAdapter;
+    }
+
+    /**
+     * Covers the items of {@code adapter}, none checked. The caller registers this observer on it.
+     */
+    void setAdapter(final RecyclerView.Adapter adapter) {
+        mAdapter = adapter;
+        mCheckStates.reset(adapter != null ? adapter.getItemCount() : 0);
+    }
+
+    /**
+     * @return false if nothing can be checked without a choice mode
+     */
+    boolean setItemChecked(final int position, final boolean value) {
+        if (mChoiceMode == RecyclerAdapterView.CHOICE_MODE_NONE) {
+            return false;
+        }
+        if (mChoiceMode == RecyclerAdapterView.CHOICE_MODE_SINGLE && value) {
+            mCheckStates.clear();
+        }
+        mCheckStates.set(position, value);
+        return true;
+    }
+
+    /**
+     * Toggles the item in {@link RecyclerAdapterView#CHOICE_MODE_MULTIPLE}, checks it in
+     * {@link RecyclerAdapterView#CHOICE_MODE_SINGLE}.
+     *
+     * @return false without a choice mode
+     */
+    boolean performItemChoice(final int position) {
+        return setItemChecked(position, mChoiceMode == RecyclerAdapterView.CHOICE_MODE_SINGLE || !mCheckStates.get(position));
+    }
+
+    boolean isItemChecked(final int position) {
+        return mCheckStates.get(position);
+    }
+
+    int getCheckedItemCount() {
+        return mCheckStates.count();
+    }
+
+    int getCheckedItemPosition() {
+        if (mChoiceMode == RecyclerAdapterView.CHOICE_MODE_SINGLE) {
+            return mCheckStates.nextSetBit(0);
+        }
+        return RecyclerView.NO_POSITION;
+    }
+
+    int[] getCheckedItemPositions() {
+        final int[] positions = new int[mCheckStates.count()];
+        int position = mCheckStates.nextSetBit(0);
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = position;
+            position = mCheckStates.nextSetBit(position + 1);
+        }
+        return positions;
+    }
+
+    long[] getCheckedItemIds() {
+        if (mAdapter == null || !mAdapter.hasStableIds()) {
+            return new long[0];
+        }
+        final int[] positions = getCheckedItemPositions();
+        final long[] ids = new long[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            ids[i] = mAdapter.getItemId(positions[i]);
+        }
+        return ids;
+    }
+
+    void checkAll() {
+        if (mChoiceMode != RecyclerAdapterView.CHOICE_MODE_MULTIPLE) {
+            throw new IllegalStateException("All the items can only be checked in CHOICE_MODE_MULTIPLE");
+        }
+        mCheckStates.setAll();
+    }
+
+    void clear() {
+        mCheckStates.clear();
+    }
+
+    @Override
+    public void onChanged() {
+        mCheckStates.reset(mAdapter.getItemCount());
+    }
+
+    @Override
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        mCheckStates.insert(positionStart, itemCount);
+    }
+
+    @Override
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        mCheckStates.remove(positionStart, itemCount);
+    }
+
+    @Override
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        mCheckStates.move(fromPosition, toPosition, itemCount);
+    }
+}
@@ -0,0 +1,385 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Adapter showing the items of several adapters one after the other.
+ * <p/>
+ * The item counts of the child adapters are kept in a {@link PrefixSumTree}, so mapping a
+ * position to its child is O(log n) in the number of children. The counts are updated from the
+ * range notifications of each child, which are forwarded shifted by the child's offset.
+ * <p/>
+ * Each view type of each child is mapped to a view type of its own, so children can use the
+ * same view types without collision. Children are asked to create holders of their own view
+ * types, but the holders they bind report the global view type from
+ * {@link RecyclerView.ViewHolder#getItemViewType()} : a child telling its rows apart at bind time
+ * should use {@link #getLocalViewType(RecyclerView.ViewHolder)} or its own
+ * {@link RecyclerView.Adapter#getItemViewType(int)} instead. The view types of a removed child
+ * are released and never given again, so its holders still on screen can't be mistaken for the
+ * ones of another child.
+ * <p/>
+ * The adapter has stable ids when all its children have, and forwards their ids : they must then
+ * be unique across the children. As RecyclerView doesn't allow it to change once the adapter is
+ * observed, a child without stable ids can't be added at that point.
+ * <p/>
+ * Must only be used from the main thread.
+ */
+public class CompositeAdapter extends RecyclerAdapterView.Adapter<RecyclerAdapterView.ViewHolder> {
+
+    private final ArrayList<Segment> mSegments = new ArrayList<>();
+    private final PrefixSumTree mItemCounts = new PrefixSumTree();
+
+    // Global view type -> segment, null once released, and view type of the child
+    private final ArrayList<Segment> mViewTypeSegments = new ArrayList<>();
+    private int[] mViewTypeChildTypes = new int[8];
+
+    private RecyclerView mRecyclerView;
+    private RecyclerView.AdapterDataObserver mUpdateTarget = new AdapterNotifier(this);
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    public void addAdapter(final RecyclerAdapterView.Adapter adapter) {
+        addAdapter(mSegments.size(), adapter);
+    }
+
+    /**
+     * @throws IllegalStateException if the adapter has no stable ids while this adapter has and is
+     *                               already observed
+     */
+    public void addAdapter(final int index, final RecyclerAdapterView.Adapter adapter) {
+        if (!adapter.hasStableIds() && hasStableIds() && hasObservers()) {
+            throw new IllegalStateException("Children without stable ids can't be added once the adapter is observed");
+        }
+        final Segment segment = new Segment(adapter);
+        mSegments.add(index, segment);
+        updateSegmentIndexes(index);
+        final int itemCount = adapter.getItemCount();
+        mItemCounts.insert(index, itemCount);
+        updateHasStableIds();
+        adapter.registerAdapterDataObserver(segment.mObserver);
+        if (mRecyclerView != null) {
+            adapter.onAttachedToRecyclerView(mRecyclerView);
+        }
+        if (itemCount > 0) {
+            mUpdateTarget.onItemRangeInserted(mItemCounts.prefixSum(index), itemCount);
+        }
+    }
+
+    public boolean removeAdapter(final RecyclerAdapterView.Adapter adapter) {
+        final int index = indexOfAdapter(adapter);
+        if (index < 0) {
+            return false;
+        }
+        final Segment segment = mSegments.remove(index);
+        final int offset = mItemCounts.prefixSum(index);
+        final int itemCount = mItemCounts.get(index);
+        mItemCounts.remove(index);
+        updateSegmentIndexes(index);
+        releaseViewTypes(segment);
+        updateHasStableIds();
+        adapter.unregisterAdapterDataObserver(segment.mObserver);
+        if (mRecyclerView != null) {
+            adapter.onDetachedFromRecyclerView(mRecyclerView);
+        }
+        if (itemCount > 0) {
+            mUpdateTarget.onItemRangeRemoved(offset, itemCount);
+        }
+        return true;
+    }
+
+    public int getAdapterCount() {
+        return mSegments.size();
+    }
+
+    public RecyclerAdapterView.Adapter getAdapter(final int index) {
+        return mSegments.get(index).mAdapter;
+    }
+
+    public int indexOfAdapter(final RecyclerAdapterView.Adapter adapter) {
+        for (int i = 0; i < mSegments.size(); i++) {
+            if (mSegments.get(i).mAdapter == adapter) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the child adapter showing the item at this position
+     */
+    public RecyclerAdapterView.Adapter getAdapterForPosition(final int position) {
+        return getSegment(position).mAdapter;
+    }
+
+    /**
+     * @return the position of the item in its child adapter
+     */
+    public int getChildPosition(final int position) {
+        return position - mItemCounts.prefixSum(getSegment(position).mIndex);
+    }
+
+    /**
+     * @return the position in this adapter of the item at {@code childPosition} in the child
+     * adapter, or {@link RecyclerView#NO_POSITION} if the adapter is not a child
+     */
+    public int getPosition(final RecyclerAdapterView.Adapter adapter, final int childPosition) {
+        final int index = indexOfAdapter(adapter);
+        if (index < 0) {
+            return RecyclerView.NO_POSITION;
+        }
+        return mItemCounts.prefixSum(index) + childPosition;
+    }
+
+    /**
+     * @return the view type of the holder in the child adapter which created it, as returned by
+     * the child's {@link RecyclerView.Adapter#getItemViewType(int)}
+     */
+    public int getLocalViewType(final RecyclerView.ViewHolder holder) {
+        final int viewType = holder.getItemViewType();
+        if (viewType < 0 || viewType >= mViewTypeSegments.size()) {
+            throw new IllegalArgumentException("View type " + viewType + " was not created by this adapter");
+        }
+        return mViewTypeChildTypes[viewType];
+    }
+
+    @Override
+    public int getItemCount() {
+        return mItemCounts.total();
+    }
+
+    @Override
+    public Object getItem(int position) {
+        final Segment segment = getSegment(position);
+        return segment.mAdapter.getItem(position - mItemCounts.prefixSum(segment.mIndex));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        final Segment segment = getSegment(position);
+        return segment.mAdapter.getItemId(position - mItemCounts.prefixSum(segment.mIndex));
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        final Segment segment = getSegment(position);
+        final int childViewType = segment.mAdapter.getItemViewType(position - mItemCounts.prefixSum(segment.mIndex));
+        int viewType = segment.mViewTypes.get(childViewType, -1);
+        if (viewType < 0) {
+            viewType = mViewTypeSegments.size();
+            mViewTypeSegments.add(segment);
+            if (viewType == mViewTypeChildTypes.length) {
+                mViewTypeChildTypes = Arrays.copyOf(mViewTypeChildTypes, viewType * 2);
+            }
+            mViewTypeChildTypes[viewType] = childViewType;
+            segment.mViewTypes.put(childViewType, viewType);
+        }
+        return viewType;
+    }
+
+    @Override
+    public RecyclerAdapterView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        final RecyclerAdapterViewMetrics metrics = getOwnMetrics();
+        if (metrics == null) {
+            return onCreateChildViewHolder(parent, viewType);
+        }
+        final long start = System.nanoTime();
+        final RecyclerAdapterView.ViewHolder holder = onCreateChildViewHolder(parent, viewType);
+        metrics.recordCreate(viewType, System.nanoTime() - start);
+        return holder;
+    }
+
+    private RecyclerAdapterView.ViewHolder onCreateChildViewHolder(final ViewGroup parent, final int viewType) {
+        return (RecyclerAdapterView.ViewHolder) mViewTypeSegments.get(viewType).mAdapter
+                .onCreateViewHolder(parent, mViewTypeChildTypes[viewType]);
+    }
+
+    @Override
+    public void onBindViewHolder(RecyclerAdapterView.ViewHolder holder, int position) {
+        final Segment segment = getSegment(position);
+        segment.mAdapter.onBindViewHolder(holder, position - mItemCounts.prefixSum(segment.mIndex));
+    }
+
+    @Override
+    void dispatchBindViewHolder(RecyclerAdapterView.ViewHolder holder, int position, List<Object> payloads) {
+        final Segment segment = getSegment(position);
+        segment.mAdapter.onBindViewHolder(holder, position - mItemCounts.prefixSum(segment.mIndex), payloads);
+        // The children only know their own positions, the choice mode is on the composite ones
+        onItemBound(holder, position);
+    }
+
+    @Override
+    public void onViewRecycled(RecyclerAdapterView.ViewHolder holder) {
+        super.onViewRecycled(holder);
+        final int viewType = holder.getItemViewType();
+        final Segment segment = getSegmentForViewType(viewType);
+        if (segment != null) {
+            segment.mAdapter.onViewRecycled(holder);
+        } else if (mRecyclerView != null) {
+            // A holder of a removed child : it goes to the pool right after this call, it is
+            // dropped from there once the recycling is done
+            final RecyclerView recyclerView = mRecyclerView;
+            recyclerView.post(new Runnable() {
+                @Override
+                public void run() {
+                    RecyclerAdapterView.releaseViewType(recyclerView, viewType);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void onViewAttachedToWindow(RecyclerAdapterView.ViewHolder holder) {
+        super.onViewAttachedToWindow(holder);
+        final Segment segment = getSegmentForViewType(holder.getItemViewType());
+        if (segment != null) {
+            segment.mAdapter.onViewAttachedToWindow(holder);
+        }
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(RecyclerAdapterView.ViewHolder holder) {
+        super.onViewDetachedFromWindow(holder);
+        final Segment segment = getSegmentForViewType(holder.getItemViewType());
+        if (segment != null) {
+            segment.mAdapter.onViewDetachedFromWindow(holder);
+        }
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        mRecyclerView = recyclerView;
+        for (int i = 0; i < mSegments.size(); i++) {
+            mSegments.get(i).mAdapter.onAttachedToRecyclerView(recyclerView);
+        }
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        mRecyclerView = null;
+        for (int i = 0; i < mSegments.size(); i++) {
+            mSegments.get(i).mAdapter.onDetachedFromRecyclerView(recyclerView);
+        }
+    }
+
+    /**
+     * Dispatches the updates of the composite items to {@code target} instead of the observers of the adapter.
+     */
+    void setUpdateTarget(final RecyclerView.AdapterDataObserver target) {
+        mUpdateTarget = target;
+        for (int i = 0; i < mSegments.size(); i++) {
+            mSegments.get(i).mObserver.setTarget(target);
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private Segment getSegment(final int position) {
+        final int index = mItemCounts.indexOf(position);
+        if (position < 0 || index >= mSegments.size()) {
+            throw new IndexOutOfBoundsException("Invalid position " + position + ", size is " + getItemCount());
+        }
+        return mSegments.get(index);
+    }
+
+    /**
+     * @return the segment owning the view type, or null if its adapter has been removed
+     */
+    private Segment getSegmentForViewType(final int viewType) {
+        if (viewType < 0 || viewType >= mViewTypeSegments.size()) {
+            return null;
+        }
+        return mViewTypeSegments.get(viewType);
+    }
+
+    /**
+     * Forgets the segment of the view types of a removed child, and drops their pooled holders.
+     */
+    private void releaseViewTypes(final Segment segment) {
+        for (int viewType = 0; viewType < mViewTypeSegments.size(); viewType++) {
+            if (mViewTypeSegments.get(viewType) == segment) {
+                mViewTypeSegments.set(viewType, null);
+                if (mRecyclerView != null) {
+                    RecyclerAdapterView.releaseViewType(mRecyclerView, viewType);
+                }
+            }
+        }
+    }
+
+    /**
+     * Mirrors the stable ids of the children, which can only change while nothing observes the
+     * adapter. Without children, it has none.
+     */
+    private void updateHasStableIds() {
+        boolean stableIds = !mSegments.isEmpty();
+        for (int i = 0; i < mSegments.size() && stableIds; i++) {
+            stableIds = mSegments.get(i).mAdapter.hasStableIds();
+        }
+        if (stableIds != hasStableIds() && !hasObservers()) {
+            setHasStableIds(stableIds);
+        }
+    }
+
+    private void updateSegmentIndexes(final int from) {
+        for (int i = from; i < mSegments.size(); i++) {
+            mSegments.get(i).mIndex = i;
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    private class Segment {
+
+        final RecyclerAdapterView.Adapter mAdapter;
+        // View type of the child -> global view type
+        final LongIntMap mViewTypes = new LongIntMap();
+        int mIndex;
+
+        final OffsetAdapterDataObserver mObserver = new OffsetAdapterDataObserver(mUpdateTarget) {
+            @Override
+            int getOffset() {
+                return mItemCounts.prefixSum(mIndex);
+            }
+
+            @Override
+            public void onChanged() {
+                mItemCounts.set(mIndex, mAdapter.getItemCount());
+                super.onChanged();
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                mItemCounts.add(mIndex, itemCount);
+                super.onItemRangeInserted(positionStart, itemCount);
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                mItemCounts.add(mIndex, -itemCount);
+                super.onItemRangeRemoved(positionStart, itemCount);
+            }
+        };
+
+        Segment(final RecyclerAdapterView.Adapter adapter) {
+            mAdapter = adapter;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package fr.ganfra.recycleradapterview;
+
+import android.graphics.Canvas;
+import android.support.v7.widget.RecyclerView;
+
+/**
+ * Times the drawing of the item decorations of a {@link RecyclerAdapterView} while its metrics
+ * are enabled, with two marker decorations added before and after the decorations of the app.
+ * <p/>
+ * RecyclerView draws its decorations in the order they were added, so the time between the two
+ * markers is the time spent in the decorations of the app. These are added and removed as they
+ * are, and nothing is added while the metrics are disabled.
+ */
+class DecorationTimer {
+
+    final RecyclerView.ItemDecoration mStartMarker = new RecyclerView.ItemDecoration() {
+        @Override
+        public void onDraw(Canvas c, RecyclerView parent, RecyclerView.State state) {
+            mStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void onDrawOver(Canvas c, RecyclerView parent, RecyclerView.State state) {
+            mStartNanos = System.nanoTime();
+        }
+    };
+
+    final RecyclerView.ItemDecoration mEndMarker = new RecyclerView.ItemDecoration() {
+        @Override
+        public void onDraw(Canvas c, RecyclerView parent, RecyclerView.State state) {
+            mMetrics.recordDecoration(System.nanoTime() - mStartNanos);
+        }
+
+        @Override
+        public void onDrawOver(Canvas c, RecyclerView parent, RecyclerView.State state) {
+            mMetrics.recordDecoration(System.nanoTime() - mStartNanos);
+        }
+    };
+
+    private final RecyclerAdapterViewMetrics mMetrics;
+    private long mStartNanos;
+
+    DecorationTimer(final RecyclerAdapterViewMetrics metrics) {
+        mMetrics = metrics;
+    }
+}
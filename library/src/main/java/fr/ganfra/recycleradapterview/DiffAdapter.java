@@ -0,0 +1,219 @@
+package fr.ganfra.recycleradapterview;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Adapter backed by an immutable list, replaced with {@link #submitList(List)}.
+ * <p/>
+ * The differences between the current and the submitted list are computed on a worker thread
+ * with {@link ListDiffer}, then dispatched as range notifications on the main thread. A
+ * submission cancels any previous one still in progress.
+ */
+public abstract class DiffAdapter<T, VH extends RecyclerAdapterView.ViewHolder> extends RecyclerAdapterView.Adapter<VH> {
+
+    private static ExecutorService sDiffExecutor;
+
+    private final Executor mExecutor;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private List<T> mItems = Collections.emptyList();
+    // Latest submitted list, published once its diff is dispatched
+    private List<T> mSubmittedItems = mItems;
+    private volatile int mGeneration;
+
+    /*
+     * **********************************************************************************
+     * CONSTRUCTORS
+     * **********************************************************************************
+     */
+
+    public DiffAdapter() {
+        this(getDefaultExecutor());
+    }
+
+    public DiffAdapter(final Executor executor) {
+        mExecutor = executor;
+    }
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    public void submitList(final List<T> items) {
+        final List<T> newItems = items != null ? items : Collections.<T>emptyList();
+        final List<T> oldItems = mItems;
+        mSubmittedItems = newItems;
+        final int generation = ++mGeneration;
+        if (newItems == oldItems) {
+            return;
+        }
+        if (oldItems.isEmpty() || newItems.isEmpty()) {
+            mItems = newItems;
+            if (!oldItems.isEmpty()) {
+                notifyItemRangeRemoved(0, oldItems.size());
+            } else if (!newItems.isEmpty()) {
+                notifyItemRangeInserted(0, newItems.size());
+            }
+            return;
+        }
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final ListDiffer.Result result;
+                try {
+                    result = ListDiffer.diff(new ListCallback(oldItems, newItems, generation));
+                } catch (CancellationException e) {
+                    return;
+                }
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mGeneration) {
+                            mItems = newItems;
+                            result.dispatchUpdatesTo(DiffAdapter.this);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * @return the list shown by the adapter, which is not yet the submitted one while its diff is computed
+     * @see #getSubmittedList()
+     */
+    public List<T> getItems() {
+        return mItems;
+    }
+
+    /**
+     * @return the last list passed to {@link #submitList(List)}, to build the next one from.
+     * Building it from {@link #getItems()} would drop the submissions still being diffed.
+     */
+    public List<T> getSubmittedList() {
+        return mSubmittedItems;
+    }
+
+    @Override
+    public T getItem(int position) {
+        return mItems.get(position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return mItems.size();
+    }
+
+    /*
+     * **********************************************************************************
+     * DIFF CALLBACKS, CALLED ON THE WORKER THREAD
+     * **********************************************************************************
+     */
+
+    protected abstract boolean areItemsTheSame(T oldItem, T newItem);
+
+    protected abstract boolean areContentsTheSame(T oldItem, T newItem);
+
+    protected Object getChangePayload(T oldItem, T newItem) {
+        return null;
+    }
+
+    /**
+     * Key of the identity of the item, equal for the items that are the same : like the hash of
+     * the field compared by {@link #areItemsTheSame(Object, Object)}. Makes pairing the moved
+     * items linear, see {@link ListDiffer.Callback#getOldItemKey(int)}.
+     */
+    protected long getItemKey(T item) {
+        return 0;
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private static synchronized Executor getDefaultExecutor() {
+        if (sDiffExecutor == null) {
+            sDiffExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "RecyclerAdapterView-diff");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sDiffExecutor;
+    }
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    private class ListCallback extends ListDiffer.Callback {
+
+        private final List<T> mOldItems;
+        private final List<T> mNewItems;
+        private final int mCallbackGeneration;
+
+        ListCallback(final List<T> oldItems, final List<T> newItems, final int generation) {
+            mOldItems = oldItems;
+            mNewItems = newItems;
+            mCallbackGeneration = generation;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldItems.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewItems.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldPosition, int newPosition) {
+            return DiffAdapter.this.areItemsTheSame(mOldItems.get(oldPosition), mNewItems.get(newPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPosition, int newPosition) {
+            return DiffAdapter.this.areContentsTheSame(mOldItems.get(oldPosition), mNewItems.get(newPosition));
+        }
+
+        @Override
+        public Object getChangePayload(int oldPosition, int newPosition) {
+            return DiffAdapter.this.getChangePayload(mOldItems.get(oldPosition), mNewItems.get(newPosition));
+        }
+
+        @Override
+        public long getOldItemKey(int oldPosition) {
+            return DiffAdapter.this.getItemKey(mOldItems.get(oldPosition));
+        }
+
+        @Override
+        public long getNewItemKey(int newPosition) {
+            return DiffAdapter.this.getItemKey(mNewItems.get(newPosition));
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return mCallbackGeneration != mGeneration;
+        }
+    }
+}
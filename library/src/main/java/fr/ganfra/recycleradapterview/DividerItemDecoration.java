@@ -1,40 +1,220 @@
 package fr.ganfra.recycleradapterview;
 
 import android.graphics.Canvas;
+import android.graphics.Paint;
 import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
+import android.support.v4.view.ViewCompat;
+import android.support.v7.widget.GridLayoutManager;
+import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.StaggeredGridLayoutManager;
 import android.view.View;
 
+import java.util.Arrays;
+
 public class DividerItemDecoration extends RecyclerView.ItemDecoration {
 
+    /*
+     * **********************************************************************************
+     * CONSTANTS
+     * **********************************************************************************
+     */
+
+    private static final int ORIENTATION_VERTICAL = 0;
+    private static final int ORIENTATION_HORIZONTAL = 1;
+    private static final int ORIENTATION_GRID = 2;
+
+    /**
+     * Default rule : every row but the header and footer views has a divider.
+     */
+    public static final DividerRule SKIP_FIXED_VIEWS = new DividerRule() {
+        @Override
+        public boolean hasDivider(RecyclerView parent, int position, int viewType) {
+            return !FixedViewRecyclerAdapter.isFixedViewType(viewType);
+        }
+    };
+
+    /*
+     * **********************************************************************************
+     * ATTRIBUTES
+     * **********************************************************************************
+     */
+
     private Drawable mDivider;
+    private Paint mPaint;
     private int mDividerHeight;
+    private DividerRule mDividerRule = SKIP_FIXED_VIEWS;
+
+    private final Rect mClipBounds = new Rect();
+    private float[] mLines = new float[64];
+
+    /*
+     * **********************************************************************************
+     * CONSTRUCTORS
+     * **********************************************************************************
+     */
 
     public DividerItemDecoration(final Drawable divider, final int dividerHeight) {
         mDivider = divider;
         mDividerHeight = dividerHeight;
     }
+
+    /**
+     * Plain color dividers, all drawn with a single draw call.
+     */
+    public DividerItemDecoration(final int color, final int dividerHeight) {
+        mPaint = new Paint();
+        mPaint.setColor(color);
+        mPaint.setStrokeWidth(dividerHeight);
+        mPaint.setStrokeCap(Paint.Cap.BUTT);
+        mDividerHeight = dividerHeight;
+    }
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    public void setDividerRule(final DividerRule dividerRule) {
+        mDividerRule = dividerRule;
+    }
+
+    public DividerRule getDividerRule() {
+        return mDividerRule;
+    }
+
     @Override
     public void onDrawOver(Canvas c, RecyclerView parent, RecyclerView.State state) {
-        final int left = parent.getPaddingLeft();
-        final int right = parent.getWidth() - parent.getPaddingRight();
+        if (mDividerHeight > 0 && c.getClipBounds(mClipBounds)) {
+            final int orientation = getOrientation(parent);
+            int lineCount = 0;
 
-        final int childCount = parent.getChildCount();
-        for (int i = 0; i < childCount-1; i++) {
-            final View child = parent.getChildAt(i);
-            final RecyclerView.LayoutParams params = (RecyclerView.LayoutParams) child
-                    .getLayoutParams();
-            final int top = child.getBottom() + params.bottomMargin;
-            final int bottom = top + mDividerHeight;
+            final int childCount = parent.getChildCount();
+            // No divider after the last child
+            for (int i = 0; i < childCount - 1; i++) {
+                final View child = parent.getChildAt(i);
+                if (!hasDivider(parent, child)) {
+                    continue;
+                }
+                final RecyclerView.LayoutParams params = (RecyclerView.LayoutParams) child.getLayoutParams();
+                final int translationX = (int) ViewCompat.getTranslationX(child);
+                final int translationY = (int) ViewCompat.getTranslationY(child);
 
-            mDivider.setBounds(left, top, right, bottom);
-            mDivider.draw(c);
+                if (orientation != ORIENTATION_HORIZONTAL) {
+                    final int left = orientation == ORIENTATION_GRID ? child.getLeft() - params.leftMargin + translationX : parent.getPaddingLeft();
+                    final int right = orientation == ORIENTATION_GRID ? child.getRight() + params.rightMargin + translationX + mDividerHeight : parent.getWidth() - parent.getPaddingRight();
+                    final int top = child.getBottom() + params.bottomMargin + translationY;
+                    lineCount = drawDivider(c, left, top, right, top + mDividerHeight, false, lineCount);
+                }
+                if (orientation != ORIENTATION_VERTICAL) {
+                    final int top = orientation == ORIENTATION_GRID ? child.getTop() - params.topMargin + translationY : parent.getPaddingTop();
+                    final int bottom = orientation == ORIENTATION_GRID ? child.getBottom() + params.bottomMargin + translationY : parent.getHeight() - parent.getPaddingBottom();
+                    final int left = child.getRight() + params.rightMargin + translationX;
+                    lineCount = drawDivider(c, left, top, left + mDividerHeight, bottom, true, lineCount);
+                }
+            }
+            if (mPaint != null && lineCount > 0) {
+                c.drawLines(mLines, 0, lineCount * 4, mPaint);
+            }
         }
     }
 
     @Override
     public void getItemOffsets(Rect outRect, View view, RecyclerView parent, RecyclerView.State state) {
-        outRect.set(0, 0, 0, mDividerHeight);
+        if (!hasDivider(parent, view)) {
+            outRect.set(0, 0, 0, 0);
+            return;
+        }
+        switch (getOrientation(parent)) {
+            case ORIENTATION_HORIZONTAL:
+                outRect.set(0, 0, mDividerHeight, 0);
+                break;
+            case ORIENTATION_GRID:
+                outRect.set(0, 0, mDividerHeight, mDividerHeight);
+                break;
+            default:
+                outRect.set(0, 0, 0, mDividerHeight);
+                break;
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    /**
+     * Draws the divider if it is inside the clip, plain color dividers are only queued.
+     *
+     * @return the number of queued lines
+     */
+    private int drawDivider(final Canvas c, final int left, final int top, final int right, final int bottom,
+                            final boolean vertical, int lineCount) {
+        if (right <= mClipBounds.left || left >= mClipBounds.right || bottom <= mClipBounds.top || top >= mClipBounds.bottom) {
+            return lineCount;
+        }
+        if (mPaint == null) {
+            mDivider.setBounds(left, top, right, bottom);
+            mDivider.draw(c);
+            return lineCount;
+        }
+        if ((lineCount + 1) * 4 > mLines.length) {
+            mLines = Arrays.copyOf(mLines, mLines.length * 2);
+        }
+        final int index = lineCount * 4;
+        if (vertical) {
+            final float x = (left + right) / 2f;
+            mLines[index] = x;
+            mLines[index + 1] = top;
+            mLines[index + 2] = x;
+            mLines[index + 3] = bottom;
+        } else {
+            final float y = (top + bottom) / 2f;
+            mLines[index] = left;
+            mLines[index + 1] = y;
+            mLines[index + 2] = right;
+            mLines[index + 3] = y;
+        }
+        return lineCount + 1;
+    }
+
+    private boolean hasDivider(final RecyclerView parent, final View child) {
+        if (mDividerRule == null) {
+            return true;
+        }
+        final RecyclerView.ViewHolder holder = parent.getChildViewHolder(child);
+        int position = holder.getAdapterPosition();
+        if (position == RecyclerView.NO_POSITION) {
+            position = holder.getLayoutPosition();
+        }
+        return mDividerRule.hasDivider(parent, position, holder.getItemViewType());
+    }
+
+    private static int getOrientation(final RecyclerView parent) {
+        final RecyclerView.LayoutManager layoutManager = parent.getLayoutManager();
+        if (layoutManager instanceof GridLayoutManager || layoutManager instanceof StaggeredGridLayoutManager) {
+            return ORIENTATION_GRID;
+        } else if (layoutManager instanceof LinearLayoutManager
+                && ((LinearLayoutManager) layoutManager).getOrientation() == LinearLayoutManager.HORIZONTAL) {
+            return ORIENTATION_HORIZONTAL;
+        }
+        return ORIENTATION_VERTICAL;
+    }
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    public interface DividerRule {
+
+        /**
+         * @param position adapter position of the row, headers included
+         */
+        boolean hasDivider(RecyclerView parent, int position, int viewType);
     }
 }
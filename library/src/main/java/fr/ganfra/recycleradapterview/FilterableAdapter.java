@@ -0,0 +1,295 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Adapter showing the items of an immutable list matching a constraint, set with
+ * {@link #filter(CharSequence)}.
+ * <p/>
+ * The items are matched on a worker thread and a new constraint cancels the pass still in
+ * progress. The result is kept as the indexes of the matching items in the list, so it is
+ * published as the range insertions and removals from the previous result, computed by merging
+ * both sorted index arrays. A constraint refining the current one, like a prefix typed further,
+ * only scans the items of the current result.
+ * <p/>
+ * Must only be used from the main thread.
+ */
+public abstract class FilterableAdapter<T, VH extends RecyclerAdapterView.ViewHolder> extends RecyclerAdapterView.Adapter<VH> {
+
+    private static final int OP_REMOVE = 0;
+    private static final int OP_INSERT = 1;
+
+    private static ExecutorService sFilterExecutor;
+
+    private final Executor mExecutor;
+    private final Executor mMainThreadExecutor;
+    private RecyclerView.AdapterDataObserver mUpdateTarget = new AdapterNotifier(this);
+
+    private List<T> mItems = Collections.emptyList();
+    // Indexes in mItems of the matching items, null when there is no constraint
+    private int[] mMatches;
+    private int mMatchCount;
+    private CharSequence mConstraint;
+    private volatile int mGeneration;
+
+    // Latest items and constraint, published once their pass completes
+    private List<T> mRequestedItems = mItems;
+    private CharSequence mRequestedConstraint;
+
+    /*
+     * **********************************************************************************
+     * CONSTRUCTORS
+     * **********************************************************************************
+     */
+
+    public FilterableAdapter() {
+        this(getDefaultExecutor());
+    }
+
+    public FilterableAdapter(final Executor executor) {
+        this(executor, new MainThreadExecutor());
+    }
+
+    FilterableAdapter(final Executor executor, final Executor mainThreadExecutor) {
+        mExecutor = executor;
+        mMainThreadExecutor = mainThreadExecutor;
+    }
+
+    /*
+     * **********************************************************************************
+     * FILTER CALLBACKS, CALLED ON THE WORKER THREAD
+     * **********************************************************************************
+     */
+
+    /**
+     * @param constraint a constraint that is neither null nor empty
+     */
+    protected abstract boolean matches(T item, CharSequence constraint);
+
+    /**
+     * @return true if every item matching {@code constraint} also matches {@code previous}, so
+     * only the items matching {@code previous} need to be matched again. By default true when
+     * {@code constraint} starts with {@code previous}, as with prefix or substring matching.
+     */
+    protected boolean isRefinement(final CharSequence previous, final CharSequence constraint) {
+        return constraint.length() > previous.length() && constraint.toString().startsWith(previous.toString());
+    }
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    /**
+     * Replaces the items, filtered with the current constraint. The list must not be modified
+     * afterwards. The adapter is notified with {@link #notifyDataSetChanged()} : use a
+     * {@link DiffAdapter} when the items change often.
+     */
+    public void setItems(final List<T> items) {
+        final List<T> newItems = items != null ? items : Collections.<T>emptyList();
+        mRequestedItems = newItems;
+        if (isEmpty(mRequestedConstraint)) {
+            mGeneration++;
+            mItems = newItems;
+            mConstraint = mRequestedConstraint;
+            mMatches = null;
+            mMatchCount = newItems.size();
+            mUpdateTarget.onChanged();
+        } else {
+            startFilter(newItems, mRequestedConstraint, false);
+        }
+    }
+
+    public List<T> getItems() {
+        return mItems;
+    }
+
+    /**
+     * Shows the items matching the constraint, or all the items if it is null or empty.
+     */
+    public void filter(final CharSequence constraint) {
+        startFilter(mRequestedItems, constraint, mRequestedItems == mItems);
+    }
+
+    /**
+     * @return the constraint of the shown items
+     */
+    public CharSequence getConstraint() {
+        return mConstraint;
+    }
+
+    @Override
+    public T getItem(int position) {
+        return mItems.get(mMatches != null ? mMatches[position] : position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return mMatchCount;
+    }
+
+    /**
+     * Called when the items matching a constraint have been published.
+     */
+    protected void onFilterComplete(final CharSequence constraint, final int count) {
+    }
+
+    /**
+     * Dispatches the updates of the shown items to {@code target} instead of the observers of the adapter.
+     */
+    void setUpdateTarget(final RecyclerView.AdapterDataObserver target) {
+        mUpdateTarget = target;
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private void startFilter(final List<T> items, final CharSequence constraint, final boolean sameItems) {
+        final String newConstraint = constraint != null ? constraint.toString() : null;
+        mRequestedConstraint = newConstraint;
+        final int generation = ++mGeneration;
+        final int[] matches = mMatches;
+        final int matchCount = mMatchCount;
+        final CharSequence previous = mConstraint;
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final int[] newMatches;
+                final int newMatchCount;
+                if (isEmpty(newConstraint)) {
+                    newMatches = null;
+                    newMatchCount = items.size();
+                } else {
+                    // The current result is only a valid base for the items it was computed on
+                    final boolean refine = sameItems && !isEmpty(previous) && isRefinement(previous, newConstraint);
+                    final int candidateCount = refine ? matchCount : items.size();
+                    int[] result = new int[Math.min(candidateCount, 16)];
+                    int count = 0;
+                    for (int i = 0; i < candidateCount; i++) {
+                        if (generation != mGeneration) {
+                            return;
+                        }
+                        final int index = refine && matches != null ? matches[i] : i;
+                        if (matches(items.get(index), newConstraint)) {
+                            if (count == result.length) {
+                                result = Arrays.copyOf(result, Math.min(candidateCount, count * 2));
+                            }
+                            result[count++] = index;
+                        }
+                    }
+                    newMatches = result;
+                    newMatchCount = count;
+                }
+                final int[] ops = sameItems ? diff(matches, matchCount, newMatches, newMatchCount) : null;
+                mMainThreadExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mGeneration) {
+                            publish(items, newConstraint, newMatches, newMatchCount, ops);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void publish(final List<T> items, final CharSequence constraint, final int[] matches, final int matchCount, final int[] ops) {
+        mItems = items;
+        mConstraint = constraint;
+        mMatches = matches;
+        mMatchCount = matchCount;
+        if (ops == null) {
+            mUpdateTarget.onChanged();
+        } else {
+            for (int i = 1; i <= ops[0]; i += 3) {
+                if (ops[i] == OP_REMOVE) {
+                    mUpdateTarget.onItemRangeRemoved(ops[i + 1], ops[i + 2]);
+                } else {
+                    mUpdateTarget.onItemRangeInserted(ops[i + 1], ops[i + 2]);
+                }
+            }
+        }
+        onFilterComplete(constraint, matchCount);
+    }
+
+    /**
+     * Merges two sorted index arrays, null standing for all the indexes below the count.
+     *
+     * @return the removals and insertions turning the old result into the new one, as
+     * (type, position, count) triples after the number of ints used in the array
+     */
+    private static int[] diff(final int[] oldMatches, final int oldCount, final int[] newMatches, final int newCount) {
+        int[] ops = new int[16];
+        int size = 1;
+        int position = 0;
+        int oldIndex = 0;
+        int newIndex = 0;
+        while (oldIndex < oldCount || newIndex < newCount) {
+            final int oldValue = oldIndex < oldCount ? indexAt(oldMatches, oldIndex) : Integer.MAX_VALUE;
+            final int newValue = newIndex < newCount ? indexAt(newMatches, newIndex) : Integer.MAX_VALUE;
+            if (oldValue == newValue) {
+                oldIndex++;
+                newIndex++;
+                position++;
+                continue;
+            }
+            final int type = oldValue < newValue ? OP_REMOVE : OP_INSERT;
+            // Extend the previous operation when it ends right here
+            final boolean extend = size > 1 && ops[size - 3] == type
+                    && (type == OP_REMOVE ? ops[size - 2] == position : ops[size - 2] + ops[size - 1] == position);
+            if (extend) {
+                ops[size - 1]++;
+            } else {
+                if (size + 3 > ops.length) {
+                    ops = Arrays.copyOf(ops, ops.length * 2);
+                }
+                ops[size] = type;
+                ops[size + 1] = position;
+                ops[size + 2] = 1;
+                size += 3;
+            }
+            if (type == OP_REMOVE) {
+                oldIndex++;
+            } else {
+                newIndex++;
+                position++;
+            }
+        }
+        ops[0] = size - 1;
+        return ops;
+    }
+
+    private static boolean isEmpty(final CharSequence constraint) {
+        return constraint == null || constraint.length() == 0;
+    }
+
+    private static int indexAt(final int[] matches, final int i) {
+        return matches != null ? matches[i] : i;
+    }
+
+    private static synchronized Executor getDefaultExecutor() {
+        if (sFilterExecutor == null) {
+            sFilterExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "RecyclerAdapterView-filter");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sFilterExecutor;
+    }
+}
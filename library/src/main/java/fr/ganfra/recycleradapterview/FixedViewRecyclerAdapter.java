@@ -8,48 +8,37 @@ import android.view.ViewGroup;
 import android.widget.LinearLayout;
 
 import java.util.ArrayList;
+import java.util.List;
 
 class FixedViewRecyclerAdapter<VH extends RecyclerAdapterView.ViewHolder> extends RecyclerAdapterView.Adapter<VH> {
 
     private static final String LOG_TAG = FixedViewRecyclerAdapter.class.getSimpleName();
 
-    private static final int TYPE_HEADER = Integer.MIN_VALUE;
-    private static final int TYPE_FOOTER = TYPE_HEADER + 1;
+    // Each fixed view gets its own view type, taken from a band reserved at the bottom of the int range
+    private static final int TYPE_FIXED_VIEW_FIRST = Integer.MIN_VALUE;
+    private static final int TYPE_FIXED_VIEW_COUNT = 1 << 24;
+
+    private static int sNextFixedViewId;
 
     private final RecyclerAdapterView.Adapter mWrappedAdapter;
 
-    private ArrayList<View> mHeaderViews;
-    private ArrayList<View> mFooterViews;
+    private ArrayList<FixedViewInfo> mHeaderViews;
+    private ArrayList<FixedViewInfo> mFooterViews;
 
     private Context mContext;
 
-    private RecyclerView.AdapterDataObserver mAdapterDataObserver = new RecyclerView.AdapterDataObserver() {
-        @Override
-        public void onChanged() {
-            notifyDataSetChanged();
-        }
-
-        @Override
-        public void onItemRangeChanged(int positionStart, int itemCount) {
-            notifyItemRangeChanged(positionStart, itemCount);
-        }
+    private UpdateBatcher mUpdateBatcher;
 
+    private OffsetAdapterDataObserver mAdapterDataObserver = new OffsetAdapterDataObserver(this) {
         @Override
-        public void onItemRangeInserted(int positionStart, int itemCount) {
-            notifyItemRangeInserted(positionStart, itemCount);
-        }
-
-        @Override
-        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
-            notifyItemMoved(fromPosition, toPosition);
-        }
-
-        @Override
-        public void onItemRangeRemoved(int positionStart, int itemCount) {
-            notifyItemRangeRemoved(positionStart, itemCount);
+        int getOffset() {
+            return getHeaderCount();
         }
     };
 
+    // Notifies the RecyclerView of the updates released by the update batcher
+    private final RecyclerView.AdapterDataObserver mBatchTarget = new AdapterNotifier(this);
+
 
     /*
      * **********************************************************************************
@@ -57,11 +46,12 @@ class FixedViewRecyclerAdapter<VH extends RecyclerAdapterView.ViewHolder> extend
      * **********************************************************************************
      */
 
-    public FixedViewRecyclerAdapter(final Context context, final RecyclerAdapterView.Adapter adapter, final ArrayList<View> headerViews, final ArrayList<View> footerViews) {
+    public FixedViewRecyclerAdapter(final Context context, final RecyclerAdapterView.Adapter adapter, final ArrayList<FixedViewInfo> headerViews, final ArrayList<FixedViewInfo> footerViews) {
         mContext = context;
         mWrappedAdapter = adapter;
         mHeaderViews = headerViews;
         mFooterViews = footerViews;
+        setHasStableIds(adapter != null && adapter.hasStableIds());
     }
 
 
@@ -74,15 +64,22 @@ class FixedViewRecyclerAdapter<VH extends RecyclerAdapterView.ViewHolder> extend
 
     @Override
     public int getItemViewType(int position) {
-        if (isHeaderView(position)) {
-            return TYPE_HEADER;
-        } else if (isFooterView(position)) {
-            return TYPE_FOOTER;
+        if (isFixedView(position)) {
+            return getFixedViewInfo(position).viewType;
         } else {
             return mWrappedAdapter.getItemViewType(position - getHeaderCount());
         }
     }
 
+    @Override
+    public long getItemId(int position) {
+        if (isFixedView(position)) {
+            return getFixedViewInfo(position).itemId;
+        } else {
+            return mWrappedAdapter.getItemId(position - getHeaderCount());
+        }
+    }
+
 
     public RecyclerAdapterView.Adapter<VH> getWrappedAdapter() {
         return mWrappedAdapter;
@@ -90,8 +87,7 @@ class FixedViewRecyclerAdapter<VH extends RecyclerAdapterView.ViewHolder> extend
 
     @Override
     public Object getItem(int position) {
-        final int viewType = getItemViewType(position);
-        if (viewType != TYPE_HEADER && viewType != TYPE_FOOTER) {
+        if (!isFixedView(position)) {
             return mWrappedAdapter.getItem(position - getHeaderCount());
         }
         return null;
@@ -99,27 +95,79 @@ class FixedViewRecyclerAdapter<VH extends RecyclerAdapterView.ViewHolder> extend
 
     @Override
     public VH onCreateViewHolder(ViewGroup parent, int viewType) {
-        final VH viewHolder;
-        if (viewType == TYPE_FOOTER || viewType == TYPE_HEADER) {
-            viewHolder = (VH) new FixedViewHolder(new FixedLayout(mContext));
-        } else {
-            viewHolder = (VH) mWrappedAdapter.onCreateViewHolder(parent, viewType);
+        final RecyclerAdapterViewMetrics metrics = getOwnMetrics();
+        if (metrics == null) {
+            return onCreateViewHolderInternal(parent, viewType);
         }
-        return viewHolder;
+        final long start = System.nanoTime();
+        final VH holder = onCreateViewHolderInternal(parent, viewType);
+        metrics.recordCreate(viewType, System.nanoTime() - start);
+        return holder;
+    }
+
+    private VH onCreateViewHolderInternal(final ViewGroup parent, final int viewType) {
+        if (isFixedViewType(viewType)) {
+            return (VH) new FixedViewHolder(new FixedLayout(mContext));
+        }
+        return (VH) mWrappedAdapter.onCreateViewHolder(parent, viewType);
     }
 
     @Override
     public void onBindViewHolder(VH holder, int position) {
-        final int type = holder.getItemViewType();
-        if (type == TYPE_FOOTER) {
-            ((FixedViewHolder) holder).addFixedView(getFooterView(position), position);
-        } else if (type == TYPE_HEADER) {
-            ((FixedViewHolder) holder).addFixedView(getHeaderView(position), position);
+        if (isFixedViewType(holder.getItemViewType())) {
+            ((FixedViewHolder) holder).setFixedView(getFixedViewInfo(position).view);
         } else {
             mWrappedAdapter.onBindViewHolder(holder, position - getHeaderCount());
         }
     }
 
+    @Override
+    void dispatchBindViewHolder(VH holder, int position, List<Object> payloads) {
+        if (isFixedViewType(holder.getItemViewType())) {
+            ((FixedViewHolder) holder).setFixedView(getFixedViewInfo(position).view);
+        } else {
+            mWrappedAdapter.onBindViewHolder(holder, position - getHeaderCount(), payloads);
+        }
+    }
+
+    @Override
+    public void onViewRecycled(VH holder) {
+        super.onViewRecycled(holder);
+        final int viewType = holder.getItemViewType();
+        if (!isFixedViewType(viewType)) {
+            mWrappedAdapter.onViewRecycled(holder);
+        } else if (getFixedViewInfoForType(viewType) == null) {
+            // The header or footer has been removed : the holder goes to the pool right after this
+            // call, it is dropped from there once the recycling is done
+            ((FixedViewHolder) holder).setFixedView(null);
+            final RecyclerAdapterView recyclerAdapterView = getRecyclerAdapterView();
+            if (recyclerAdapterView != null) {
+                recyclerAdapterView.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        RecyclerAdapterView.releaseViewType(recyclerAdapterView, viewType);
+                    }
+                });
+            }
+        }
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        if (mWrappedAdapter != null) {
+            mWrappedAdapter.onAttachedToRecyclerView(recyclerView);
+        }
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        if (mWrappedAdapter != null) {
+            mWrappedAdapter.onDetachedFromRecyclerView(recyclerView);
+        }
+    }
+
     @Override
     public int getItemCount() {
         int fixedSize = getFooterCount() + getHeaderCount();
@@ -151,6 +199,31 @@ class FixedViewRecyclerAdapter<VH extends RecyclerAdapterView.ViewHolder> extend
         }
     }
 
+    public void setUpdateBatcher(final UpdateBatcher updateBatcher) {
+        mUpdateBatcher = updateBatcher;
+        mAdapterDataObserver.setUpdateBatcher(updateBatcher);
+        if (updateBatcher != null) {
+            updateBatcher.setTarget(mBatchTarget);
+        }
+    }
+
+
+    public void notifyHeaderViewInserted(final int index) {
+        notifyFixedViewInserted(index);
+    }
+
+    public void notifyHeaderViewRemoved(final int index) {
+        notifyFixedViewRemoved(index);
+    }
+
+    public void notifyFooterViewInserted(final int index) {
+        notifyFixedViewInserted(getFooterOffset() + index);
+    }
+
+    public void notifyFooterViewRemoved(final int index) {
+        notifyFixedViewRemoved(getFooterOffset() + index);
+    }
+
     /*
      * **********************************************************************************
      * PRIVATE METHODS
@@ -169,18 +242,59 @@ class FixedViewRecyclerAdapter<VH extends RecyclerAdapterView.ViewHolder> extend
         return position < getHeaderCount();
     }
 
+    private int getFooterOffset() {
+        return mWrappedAdapter != null ? getHeaderCount() + mWrappedAdapter.getItemCount() : getHeaderCount();
+    }
+
     private boolean isFooterView(final int position) {
-        int exactPosition = mWrappedAdapter != null ? getHeaderCount() + mWrappedAdapter.getItemCount() : getHeaderCount();
-        return position >= exactPosition;
+        return position >= getFooterOffset();
     }
 
-    private View getHeaderView(final int position) {
-        return mHeaderViews.get(position);
+    private void notifyFixedViewInserted(final int position) {
+        if (mUpdateBatcher != null) {
+            mUpdateBatcher.onItemRangeInserted(position, 1);
+        } else {
+            notifyItemInserted(position);
+        }
     }
 
-    private View getFooterView(final int position) {
-        final int offset = mWrappedAdapter != null ? getHeaderCount() + mWrappedAdapter.getItemCount() : getHeaderCount();
-        return mFooterViews.get(position - offset);
+    private void notifyFixedViewRemoved(final int position) {
+        if (mUpdateBatcher != null) {
+            mUpdateBatcher.onItemRangeRemoved(position, 1);
+        } else {
+            notifyItemRemoved(position);
+        }
+    }
+
+    private FixedViewInfo getFixedViewInfo(final int position) {
+        if (isHeaderView(position)) {
+            return mHeaderViews.get(position);
+        }
+        return mFooterViews.get(position - getFooterOffset());
+    }
+
+    private FixedViewInfo getFixedViewInfoForType(final int viewType) {
+        for (int i = 0; i < getHeaderCount(); i++) {
+            if (mHeaderViews.get(i).viewType == viewType) {
+                return mHeaderViews.get(i);
+            }
+        }
+        for (int i = 0; i < getFooterCount(); i++) {
+            if (mFooterViews.get(i).viewType == viewType) {
+                return mFooterViews.get(i);
+            }
+        }
+        return null;
+    }
+
+    static boolean isFixedViewType(final int viewType) {
+        return viewType < TYPE_FIXED_VIEW_FIRST + TYPE_FIXED_VIEW_COUNT;
+    }
+
+    private static int nextFixedViewId() {
+        final int id = sNextFixedViewId;
+        sNextFixedViewId = (sNextFixedViewId + 1) % TYPE_FIXED_VIEW_COUNT;
+        return id;
     }
 
 
@@ -190,17 +304,31 @@ class FixedViewRecyclerAdapter<VH extends RecyclerAdapterView.ViewHolder> extend
      * **********************************************************************************
      */
 
+    static class FixedViewInfo {
+
+        final View view;
+        final int viewType;
+        final long itemId;
+
+        FixedViewInfo(final View view) {
+            final int id = nextFixedViewId();
+            this.view = view;
+            this.viewType = TYPE_FIXED_VIEW_FIRST + id;
+            this.itemId = Long.MIN_VALUE + id;
+        }
+    }
+
     private static class FixedViewHolder extends RecyclerAdapterView.ViewHolder {
 
         private FixedLayout mFixedLayout;
 
         public FixedViewHolder(final FixedLayout fixedLayout) {
-            super(fixedLayout);
+            super(fixedLayout, false);
             mFixedLayout = fixedLayout;
         }
 
-        public void addFixedView(final View content, final int position) {
-            mFixedLayout.addFixedView(content, position);
+        public void setFixedView(final View content) {
+            mFixedLayout.setFixedView(content);
         }
     }
 
@@ -215,8 +343,15 @@ class FixedViewRecyclerAdapter<VH extends RecyclerAdapterView.ViewHolder> extend
 
         }
 
-        public void addFixedView(final View view, final int position) {
-            if (view != null && view.getParent() == null) {
+        public void setFixedView(final View view) {
+            if (getChildCount() == 1 && getChildAt(0) == view) {
+                return;
+            }
+            removeAllViews();
+            if (view != null) {
+                if (view.getParent() instanceof ViewGroup) {
+                    ((ViewGroup) view.getParent()).removeView(view);
+                }
                 addView(view);
             }
         }
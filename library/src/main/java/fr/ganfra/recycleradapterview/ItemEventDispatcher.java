@@ -0,0 +1,76 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+/**
+ * Click and long click listener shared by all the item views, so view holders don't need
+ * listeners of their own.
+ * <p/>
+ * It is set once on each item view by the {@link RecyclerAdapterView.ViewHolder} constructor, so
+ * a listener set by the app on the item view afterwards replaces it, like before. The
+ * RecyclerAdapterView is the parent of the clicked view. Clicks go through
+ * {@link View#performClick()}, so they come from touch as well as from accessibility services,
+ * D-pad and keyboard. Clickable views inside a row keep their own clicks.
+ */
+class ItemEventDispatcher implements View.OnClickListener, View.OnLongClickListener {
+
+    static final ItemEventDispatcher INSTANCE = new ItemEventDispatcher();
+
+    private ItemEventDispatcher() {
+    }
+
+    /*
+     * **********************************************************************************
+     * CLICK EVENTS
+     * **********************************************************************************
+     */
+
+    @Override
+    public void onClick(View view) {
+        final RecyclerAdapterView host = getHost(view);
+        final int position = getDataPosition(host, view);
+        if (position == RecyclerView.NO_POSITION) {
+            return;
+        }
+        host.performItemChoice(position);
+        if (host.getOnItemClickListener() != null) {
+            host.getOnItemClickListener().onItemClick(null, view, position, host.getChildItemId(view));
+        }
+    }
+
+    /**
+     * @return true like the listeners of the view holders did, the long click is consumed even
+     * without an OnItemLongClickListener
+     */
+    @Override
+    public boolean onLongClick(View view) {
+        final RecyclerAdapterView host = getHost(view);
+        final int position = getDataPosition(host, view);
+        if (position != RecyclerView.NO_POSITION && host.getOnItemLongClickListener() != null) {
+            host.getOnItemLongClickListener().onItemLongClick(null, view, position, host.getChildItemId(view));
+        }
+        return true;
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private static RecyclerAdapterView getHost(final View child) {
+        return child.getParent() instanceof RecyclerAdapterView ? (RecyclerAdapterView) child.getParent() : null;
+    }
+
+    private static int getDataPosition(final RecyclerAdapterView host, final View child) {
+        if (host == null) {
+            return RecyclerView.NO_POSITION;
+        }
+        final int position = host.getChildAdapterPosition(child);
+        if (position == RecyclerView.NO_POSITION || host.isFixedView(position)) {
+            return RecyclerView.NO_POSITION;
+        }
+        return position - host.getHeaderCount();
+    }
+}
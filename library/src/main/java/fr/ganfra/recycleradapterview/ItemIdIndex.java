@@ -0,0 +1,214 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+
+import java.util.Arrays;
+
+/**
+ * Index from stable item ids to adapter positions, kept up to date from the adapter's own
+ * range notifications.
+ * <p/>
+ * A structural change does not re-index the following items : it is appended to a log of
+ * pending shifts, and each indexed position is stored with the log length at the time it was
+ * indexed. A lookup replays the shifts logged since then. The whole index is rebuilt once the
+ * log holds {@link #MAX_PENDING_SHIFTS} shifts, so a notification costs its item count plus an
+ * amortized 1 / {@code MAX_PENDING_SHIFTS} of a rebuild.
+ */
+class ItemIdIndex extends RecyclerView.AdapterDataObserver {
+
+    private static final int MAX_PENDING_SHIFTS = 64;
+
+    private static final int SHIFT_INSERT = 0;
+    private static final int SHIFT_REMOVE = 1;
+    private static final int SHIFT_MOVE = 2;
+
+    private final RecyclerView.Adapter mAdapter;
+    private final LongIntMap mPositions = new LongIntMap();
+    // Log length when the position was indexed, for the ids indexed since the last rebuild
+    private final LongIntMap mVersions = new LongIntMap();
+    private long[] mIds = new long[0];
+    private int mSize;
+
+    // (type, start, count, target) per shift
+    private final int[] mShifts = new int[MAX_PENDING_SHIFTS * 4];
+    private int mShiftCount;
+
+    ItemIdIndex(final RecyclerView.Adapter adapter) {
+        mAdapter = adapter;
+        rebuild();
+    }
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    int getPosition(final long id) {
+        final int position = mPositions.get(id, RecyclerView.NO_POSITION);
+        if (position == RecyclerView.NO_POSITION) {
+            return RecyclerView.NO_POSITION;
+        }
+        return replayShifts(position, mVersions.get(id, 0));
+    }
+
+    @Override
+    public void onChanged() {
+        rebuild();
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+        for (int i = positionStart; i < positionStart + itemCount; i++) {
+            final long id = mAdapter.getItemId(i);
+            if (id != mIds[i]) {
+                unmap(mIds[i], i);
+                mIds[i] = id;
+                map(id, i);
+            }
+        }
+    }
+
+    @Override
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        ensureCapacity(mSize + itemCount);
+        System.arraycopy(mIds, positionStart, mIds, positionStart + itemCount, mSize - positionStart);
+        mSize += itemCount;
+        for (int i = positionStart; i < positionStart + itemCount; i++) {
+            mIds[i] = mAdapter.getItemId(i);
+        }
+        if (logShift(SHIFT_INSERT, positionStart, itemCount, 0)) {
+            for (int i = positionStart; i < positionStart + itemCount; i++) {
+                map(mIds[i], i);
+            }
+        }
+    }
+
+    @Override
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        for (int i = positionStart; i < positionStart + itemCount; i++) {
+            unmap(mIds[i], i);
+        }
+        System.arraycopy(mIds, positionStart + itemCount, mIds, positionStart, mSize - positionStart - itemCount);
+        mSize -= itemCount;
+        logShift(SHIFT_REMOVE, positionStart, itemCount, 0);
+    }
+
+    @Override
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        final long[] block = Arrays.copyOfRange(mIds, fromPosition, fromPosition + itemCount);
+        if (fromPosition < toPosition) {
+            System.arraycopy(mIds, fromPosition + itemCount, mIds, fromPosition, toPosition - fromPosition);
+        } else {
+            System.arraycopy(mIds, toPosition, mIds, toPosition + itemCount, fromPosition - toPosition);
+        }
+        System.arraycopy(block, 0, mIds, toPosition, itemCount);
+        logShift(SHIFT_MOVE, fromPosition, itemCount, toPosition);
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private void rebuild() {
+        mSize = mAdapter.getItemCount();
+        mIds = new long[mSize];
+        for (int i = 0; i < mSize; i++) {
+            mIds[i] = mAdapter.getItemId(i);
+        }
+        reindex();
+    }
+
+    /**
+     * Indexes the current positions of all the ids and clears the log.
+     */
+    private void reindex() {
+        mPositions.reset(mSize);
+        mVersions.clear();
+        mShiftCount = 0;
+        for (int i = 0; i < mSize; i++) {
+            mPositions.put(mIds[i], i);
+        }
+    }
+
+    /**
+     * Logs a shift of the indexed positions, or re-indexes everything when the log is full.
+     *
+     * @return false if everything was re-indexed
+     */
+    private boolean logShift(final int type, final int start, final int count, final int target) {
+        if (mShiftCount == MAX_PENDING_SHIFTS) {
+            reindex();
+            return false;
+        }
+        final int index = mShiftCount * 4;
+        mShifts[index] = type;
+        mShifts[index + 1] = start;
+        mShifts[index + 2] = count;
+        mShifts[index + 3] = target;
+        mShiftCount++;
+        return true;
+    }
+
+    /**
+     * @return the current position of an item indexed at {@code position} when the log held
+     * {@code version} shifts, or NO_POSITION if it has been removed since
+     */
+    private int replayShifts(int position, final int version) {
+        for (int i = version; i < mShiftCount; i++) {
+            final int index = i * 4;
+            final int start = mShifts[index + 1];
+            final int count = mShifts[index + 2];
+            switch (mShifts[index]) {
+                case SHIFT_INSERT:
+                    if (position >= start) {
+                        position += count;
+                    }
+                    break;
+                case SHIFT_REMOVE:
+                    if (position >= start + count) {
+                        position -= count;
+                    } else if (position >= start) {
+                        return RecyclerView.NO_POSITION;
+                    }
+                    break;
+                case SHIFT_MOVE:
+                    final int target = mShifts[index + 3];
+                    if (position >= start && position < start + count) {
+                        position += target - start;
+                    } else if (start < target && position >= start + count && position < target + count) {
+                        position -= count;
+                    } else if (start > target && position >= target && position < start) {
+                        position += count;
+                    }
+                    break;
+            }
+        }
+        return position;
+    }
+
+    private void map(final long id, final int position) {
+        mPositions.put(id, position);
+        if (mShiftCount > 0) {
+            mVersions.put(id, mShiftCount);
+        } else {
+            mVersions.remove(id);
+        }
+    }
+
+    private void unmap(final long id, final int position) {
+        // Duplicated ids may already point to another position
+        if (getPosition(id) == position) {
+            mPositions.remove(id);
+            mVersions.remove(id);
+        }
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > mIds.length) {
+            mIds = Arrays.copyOf(mIds, Math.max(capacity, mIds.length * 2));
+        }
+    }
+}
@@ -0,0 +1,468 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Computes the list of range notifications turning an old list into a new one.
+ * <p/>
+ * Matching items are found with the linear space variant of Myers' O(ND) algorithm, unmatched
+ * items with the same identity are then paired as moves, grouped by
+ * {@link Callback#getOldItemKey(int) key}. The computation only reads the
+ * {@link Callback} so it can run on a worker thread, the resulting {@link Result} is then
+ * dispatched to an adapter on the main thread.
+ */
+public final class ListDiffer {
+
+    private static final int OP_REMOVE = 0;
+    private static final int OP_MOVE = 1;
+    private static final int OP_INSERT = 2;
+    private static final int OP_CHANGE = 3;
+
+    private ListDiffer() {
+    }
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    public static Result diff(final Callback callback) {
+        final int oldSize = callback.getOldListSize();
+        final int newSize = callback.getNewListSize();
+        final int[] oldToNew = new int[oldSize];
+        final int[] newToOld = new int[newSize];
+        Arrays.fill(oldToNew, -1);
+        Arrays.fill(newToOld, -1);
+
+        // Common prefix and suffix are matched upfront, most updates only touch a small window
+        int start = 0;
+        while (start < oldSize && start < newSize && callback.areItemsTheSame(start, start)) {
+            oldToNew[start] = start;
+            newToOld[start] = start;
+            start++;
+        }
+        int oldEnd = oldSize;
+        int newEnd = newSize;
+        while (oldEnd > start && newEnd > start && callback.areItemsTheSame(oldEnd - 1, newEnd - 1)) {
+            oldEnd--;
+            newEnd--;
+            oldToNew[oldEnd] = newEnd;
+            newToOld[newEnd] = oldEnd;
+        }
+
+        matchItems(callback, start, start, oldEnd, newEnd, oldToNew, newToOld);
+        final boolean[] moved = detectMoves(callback, start, oldEnd, start, newEnd, oldToNew, newToOld);
+        return buildResult(callback, oldToNew, newToOld, moved);
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private static void matchItems(final Callback callback, final int left, final int top, final int right, final int bottom,
+                                   final int[] oldToNew, final int[] newToOld) {
+        final int size = (right - left) + (bottom - top);
+        if (size == 0) {
+            return;
+        }
+        final int offset = (size + 1) / 2 + 1;
+        final int[] forward = new int[2 * offset + 1];
+        final int[] backward = new int[2 * offset + 1];
+        final int[] snake = new int[4];
+
+        int[] boxes = new int[16];
+        int boxCount = 0;
+        boxes[boxCount++] = left;
+        boxes[boxCount++] = top;
+        boxes[boxCount++] = right;
+        boxes[boxCount++] = bottom;
+
+        while (boxCount > 0) {
+            final int boxBottom = boxes[--boxCount];
+            final int boxRight = boxes[--boxCount];
+            final int boxTop = boxes[--boxCount];
+            final int boxLeft = boxes[--boxCount];
+            if (!findMiddleSnake(callback, boxLeft, boxTop, boxRight, boxBottom, forward, backward, offset, snake)) {
+                continue;
+            }
+            walkSnake(callback, snake[0], snake[1], snake[2], snake[3], oldToNew, newToOld);
+
+            if (boxCount + 8 > boxes.length) {
+                boxes = Arrays.copyOf(boxes, boxes.length * 2);
+            }
+            boxes[boxCount++] = boxLeft;
+            boxes[boxCount++] = boxTop;
+            boxes[boxCount++] = snake[0];
+            boxes[boxCount++] = snake[1];
+            boxes[boxCount++] = snake[2];
+            boxes[boxCount++] = snake[3];
+            boxes[boxCount++] = boxRight;
+            boxes[boxCount++] = boxBottom;
+        }
+    }
+
+    /**
+     * Finds the snake in the middle of the shortest edit path of the box, written as
+     * {startX, startY, endX, endY} in {@code outSnake}. x is an old position, y a new one.
+     */
+    private static boolean findMiddleSnake(final Callback callback, final int left, final int top, final int right, final int bottom,
+                                           final int[] forward, final int[] backward, final int offset, final int[] outSnake) {
+        final int width = right - left;
+        final int height = bottom - top;
+        final int size = width + height;
+        if (size == 0) {
+            return false;
+        }
+        final int delta = width - height;
+        final boolean odd = (delta & 1) != 0;
+        final int max = (size + 1) / 2;
+        forward[offset + 1] = left;
+        backward[offset + 1] = bottom;
+
+        for (int d = 0; d <= max; d++) {
+            if (callback.isCancelled()) {
+                throw new CancellationException();
+            }
+            // Forward paths, furthest x for each diagonal k
+            for (int k = d; k >= -d; k -= 2) {
+                final int px;
+                int x;
+                if (k == -d || (k != d && forward[offset + k - 1] < forward[offset + k + 1])) {
+                    px = forward[offset + k + 1];
+                    x = px;
+                } else {
+                    px = forward[offset + k - 1];
+                    x = px + 1;
+                }
+                int y = top + (x - left) - k;
+                final int py = (d == 0 || x != px) ? y : y - 1;
+                while (x < right && y < bottom && callback.areItemsTheSame(x, y)) {
+                    x++;
+                    y++;
+                }
+                forward[offset + k] = x;
+                final int c = k - delta;
+                if (odd && c >= -(d - 1) && c <= d - 1 && y >= backward[offset + c]) {
+                    outSnake[0] = px;
+                    outSnake[1] = py;
+                    outSnake[2] = x;
+                    outSnake[3] = y;
+                    return true;
+                }
+            }
+            // Backward paths, smallest y for each diagonal c = k - delta
+            for (int c = d; c >= -d; c -= 2) {
+                final int py;
+                int y;
+                if (c == -d || (c != d && backward[offset + c + 1] < backward[offset + c - 1])) {
+                    py = backward[offset + c + 1];
+                    y = py;
+                } else {
+                    py = backward[offset + c - 1];
+                    y = py - 1;
+                }
+                final int k = c + delta;
+                int x = left + (y - top) + k;
+                final int px = (d == 0 || y != py) ? x : x + 1;
+                while (x > left && y > top && callback.areItemsTheSame(x - 1, y - 1)) {
+                    x--;
+                    y--;
+                }
+                backward[offset + c] = y;
+                if (!odd && k >= -d && k <= d && x <= forward[offset + k]) {
+                    outSnake[0] = x;
+                    outSnake[1] = y;
+                    outSnake[2] = px;
+                    outSnake[3] = py;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void walkSnake(final Callback callback, int x, int y, final int endX, final int endY,
+                                  final int[] oldToNew, final int[] newToOld) {
+        while (x < endX || y < endY) {
+            if (x < endX && y < endY && callback.areItemsTheSame(x, y)) {
+                oldToNew[x] = y;
+                newToOld[y] = x;
+                x++;
+                y++;
+            } else if (endX - x > endY - y) {
+                x++;
+            } else {
+                y++;
+            }
+        }
+    }
+
+    private static boolean[] detectMoves(final Callback callback, final int oldStart, final int oldEnd, final int newStart, final int newEnd,
+                                         final int[] oldToNew, final int[] newToOld) {
+        final boolean[] moved = new boolean[newToOld.length];
+        // Unmatched old items by key, chained in old order : each new item is only compared to
+        // the old ones sharing its key
+        final LongIntMap heads = new LongIntMap();
+        final int[] next = new int[oldEnd - oldStart];
+        for (int i = oldEnd - 1; i >= oldStart; i--) {
+            if (oldToNew[i] == -1) {
+                final long key = callback.getOldItemKey(i);
+                next[i - oldStart] = heads.get(key, -1);
+                heads.put(key, i);
+            }
+        }
+        for (int j = newStart; j < newEnd && heads.size() > 0; j++) {
+            if (newToOld[j] != -1) {
+                continue;
+            }
+            if (callback.isCancelled()) {
+                throw new CancellationException();
+            }
+            final long key = callback.getNewItemKey(j);
+            int previous = -1;
+            for (int i = heads.get(key, -1); i != -1; i = next[i - oldStart]) {
+                if (callback.areItemsTheSame(i, j)) {
+                    oldToNew[i] = j;
+                    newToOld[j] = i;
+                    moved[j] = true;
+                    final int following = next[i - oldStart];
+                    if (previous != -1) {
+                        next[previous - oldStart] = following;
+                    } else if (following != -1) {
+                        heads.put(key, following);
+                    } else {
+                        heads.remove(key);
+                    }
+                    break;
+                }
+                previous = i;
+            }
+        }
+        return moved;
+    }
+
+    private static Result buildResult(final Callback callback, final int[] oldToNew, final int[] newToOld, final boolean[] moved) {
+        final Result result = new Result();
+        final int oldSize = oldToNew.length;
+        final int newSize = newToOld.length;
+
+        // Removals, from the end so positions are the old ones
+        for (int i = oldSize - 1; i >= 0; i--) {
+            if (oldToNew[i] == -1) {
+                int runStart = i;
+                while (runStart > 0 && oldToNew[runStart - 1] == -1) {
+                    runStart--;
+                }
+                result.addOp(OP_REMOVE, runStart, i - runStart + 1, null);
+                i = runStart;
+            }
+        }
+
+        // Moves, each moved item lands right after its predecessor in the new list. The moved
+        // items following the same kept item, or the start of the list, land one after the other :
+        // each item gets a slot after its own, then the current positions are counts of occupied
+        // slots, kept in a Fenwick tree
+        final int[] followerCounts = new int[oldSize + 1];
+        int anchor = -1;
+        for (int j = 0; j < newSize; j++) {
+            if (moved[j]) {
+                followerCounts[anchor + 1]++;
+            } else if (newToOld[j] != -1) {
+                anchor = newToOld[j];
+            }
+        }
+        final int[] slots = new int[oldSize];
+        int slotCount = followerCounts[0];
+        for (int i = 0; i < oldSize; i++) {
+            slots[i] = slotCount;
+            slotCount += 1 + followerCounts[i + 1];
+        }
+        final PrefixSumTree current = new PrefixSumTree();
+        current.reset(slotCount);
+        for (int i = 0; i < oldSize; i++) {
+            if (oldToNew[i] != -1) {
+                current.add(slots[i], 1);
+            }
+        }
+        int nextSlot = 0;
+        for (int j = 0; j < newSize; j++) {
+            final int oldPosition = newToOld[j];
+            if (oldPosition == -1) {
+                continue;
+            }
+            if (moved[j]) {
+                final int from = current.prefixSum(slots[oldPosition]);
+                current.add(slots[oldPosition], -1);
+                current.add(nextSlot, 1);
+                final int to = current.prefixSum(nextSlot);
+                nextSlot++;
+                if (from != to) {
+                    result.addOp(OP_MOVE, from, to, null);
+                }
+            } else {
+                nextSlot = slots[oldPosition] + 1;
+            }
+        }
+
+        // Insertions, in new positions since everything before them is already in place
+        for (int j = 0; j < newSize; j++) {
+            if (newToOld[j] == -1) {
+                int runEnd = j + 1;
+                while (runEnd < newSize && newToOld[runEnd] == -1) {
+                    runEnd++;
+                }
+                result.addOp(OP_INSERT, j, runEnd - j, null);
+                j = runEnd - 1;
+            }
+        }
+
+        // Changes, in new positions
+        int changeStart = -1;
+        Object changePayload = null;
+        for (int j = 0; j <= newSize; j++) {
+            boolean changed = false;
+            Object payload = null;
+            if (j < newSize && newToOld[j] != -1 && !callback.areContentsTheSame(newToOld[j], j)) {
+                changed = true;
+                payload = callback.getChangePayload(newToOld[j], j);
+            }
+            if (changeStart != -1 && (!changed || !equals(payload, changePayload))) {
+                result.addOp(OP_CHANGE, changeStart, j - changeStart, changePayload);
+                changeStart = -1;
+            }
+            if (changed && changeStart == -1) {
+                changeStart = j;
+                changePayload = payload;
+            }
+        }
+        return result;
+    }
+
+    private static boolean equals(final Object a, final Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    public static abstract class Callback {
+
+        public abstract int getOldListSize();
+
+        public abstract int getNewListSize();
+
+        public abstract boolean areItemsTheSame(int oldPosition, int newPosition);
+
+        public abstract boolean areContentsTheSame(int oldPosition, int newPosition);
+
+        public Object getChangePayload(int oldPosition, int newPosition) {
+            return null;
+        }
+
+        /**
+         * Key of the identity of the old item, like a hash of its id : items that are the same
+         * must have the same key. Pairing the unmatched items as moves only compares the items
+         * sharing a key, the default puts them all under the same one and the pairing is then
+         * quadratic in the number of unmatched items.
+         */
+        public long getOldItemKey(int oldPosition) {
+            return 0;
+        }
+
+        /**
+         * @see #getOldItemKey(int)
+         */
+        public long getNewItemKey(int newPosition) {
+            return 0;
+        }
+
+        /**
+         * Polled during the computation, {@link ListDiffer#diff(Callback)} throws a
+         * {@link CancellationException} as soon as it returns true.
+         */
+        public boolean isCancelled() {
+            return false;
+        }
+    }
+
+    public static final class Result {
+
+        private int[] mOps = new int[16];
+        private int mOpsSize;
+        private final ArrayList<Object> mPayloads = new ArrayList<>();
+
+        private Result() {
+        }
+
+        private void addOp(final int type, final int first, final int second, final Object payload) {
+            if (mOpsSize + 3 > mOps.length) {
+                mOps = Arrays.copyOf(mOps, mOps.length * 2);
+            }
+            mOps[mOpsSize++] = type;
+            mOps[mOpsSize++] = first;
+            mOps[mOpsSize++] = second;
+            mPayloads.add(payload);
+        }
+
+        public int getUpdateCount() {
+            return mOpsSize / 3;
+        }
+
+        /**
+         * Replays the updates on an observer, as the adapter would notify them. Moves are
+         * single item moves.
+         */
+        public void dispatchUpdatesTo(final RecyclerView.AdapterDataObserver observer) {
+            for (int i = 0; i < mOpsSize; i += 3) {
+                final int first = mOps[i + 1];
+                final int second = mOps[i + 2];
+                switch (mOps[i]) {
+                    case OP_REMOVE:
+                        observer.onItemRangeRemoved(first, second);
+                        break;
+                    case OP_MOVE:
+                        observer.onItemRangeMoved(first, second, 1);
+                        break;
+                    case OP_INSERT:
+                        observer.onItemRangeInserted(first, second);
+                        break;
+                    case OP_CHANGE:
+                        observer.onItemRangeChanged(first, second, mPayloads.get(i / 3));
+                        break;
+                }
+            }
+        }
+
+        public void dispatchUpdatesTo(final RecyclerView.Adapter adapter) {
+            for (int i = 0; i < mOpsSize; i += 3) {
+                final int first = mOps[i + 1];
+                final int second = mOps[i + 2];
+                switch (mOps[i]) {
+                    case OP_REMOVE:
+                        adapter.notifyItemRangeRemoved(first, second);
+                        break;
+                    case OP_MOVE:
+                        adapter.notifyItemMoved(first, second);
+                        break;
+                    case OP_INSERT:
+                        adapter.notifyItemRangeInserted(first, second);
+                        break;
+                    case OP_CHANGE:
+                        adapter.notifyItemRangeChanged(first, second, mPayloads.get(i / 3));
+                        break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package fr.ganfra.recycleradapterview;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map from long keys to non-negative int values, without boxing.
+ * Collisions are resolved by linear probing and removals shift the following entries back,
+ * so lookups never walk over deleted slots.
+ */
+final class LongIntMap {
+
+    private static final int FREE = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] mKeys;
+    private int[] mValues;
+    private int mMask;
+    private int mSize;
+
+    LongIntMap() {
+        this(MIN_CAPACITY);
+    }
+
+    LongIntMap(final int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    int size() {
+        return mSize;
+    }
+
+    int get(final long key, final int defaultValue) {
+        int index = hash(key) & mMask;
+        while (mValues[index] != FREE) {
+            if (mKeys[index] == key) {
+                return mValues[index];
+            }
+            index = (index + 1) & mMask;
+        }
+        return defaultValue;
+    }
+
+    void put(final long key, final int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not supported : " + value);
+        }
+        int index = hash(key) & mMask;
+        while (mValues[index] != FREE) {
+            if (mKeys[index] == key) {
+                mValues[index] = value;
+                return;
+            }
+            index = (index + 1) & mMask;
+        }
+        mKeys[index] = key;
+        mValues[index] = value;
+        if (++mSize > (mMask + 1) * 3 / 4) {
+            rehash((mMask + 1) * 2);
+        }
+    }
+
+    void remove(final long key) {
+        int index = hash(key) & mMask;
+        while (mValues[index] != FREE) {
+            if (mKeys[index] == key) {
+                shiftBack(index);
+                mSize--;
+                return;
+            }
+            index = (index + 1) & mMask;
+        }
+    }
+
+    void clear() {
+        Arrays.fill(mValues, FREE);
+        mSize = 0;
+    }
+
+    /**
+     * Clears the map and makes sure it can hold {@code expectedSize} entries without growing.
+     */
+    void reset(final int expectedSize) {
+        final int capacity = capacityFor(expectedSize);
+        if (capacity > mMask + 1) {
+            allocate(capacity);
+        } else {
+            clear();
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private void shiftBack(int free) {
+        int index = free;
+        while (true) {
+            index = (index + 1) & mMask;
+            if (mValues[index] == FREE) {
+                break;
+            }
+            final int home = hash(mKeys[index]) & mMask;
+            // The entry can fill the hole only if its home slot is not in (free, index]
+            final boolean movable = free <= index ? (home <= free || home > index) : (home <= free && home > index);
+            if (movable) {
+                mKeys[free] = mKeys[index];
+                mValues[free] = mValues[index];
+                free = index;
+            }
+        }
+        mValues[free] = FREE;
+    }
+
+    private void rehash(final int capacity) {
+        final long[] keys = mKeys;
+        final int[] values = mValues;
+        allocate(capacity);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != FREE) {
+                put(keys[i], values[i]);
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        mKeys = new long[capacity];
+        mValues = new int[capacity];
+        Arrays.fill(mValues, FREE);
+        mMask = capacity - 1;
+        mSize = 0;
+    }
+
+    private static int capacityFor(final int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int hash(final long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -0,0 +1,19 @@
+package fr.ganfra.recycleradapterview;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the results of the worker threads on the main thread, as the next message of its looper.
+ */
+class MainThreadExecutor implements Executor {
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    @Override
+    public void execute(Runnable runnable) {
+        mHandler.post(runnable);
+    }
+}
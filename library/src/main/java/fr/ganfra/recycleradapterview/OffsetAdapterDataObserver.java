@@ -0,0 +1,102 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+
+/**
+ * Observer translating the range events of an inner adapter into the coordinates of the
+ * adapter that wraps it, by shifting every position by {@link #getOffset()}.
+ */
+abstract class OffsetAdapterDataObserver extends RecyclerView.AdapterDataObserver {
+
+    private RecyclerView.AdapterDataObserver mTarget;
+    private UpdateBatcher mUpdateBatcher;
+
+    OffsetAdapterDataObserver(final RecyclerView.Adapter target) {
+        this(new AdapterNotifier(target));
+    }
+
+    OffsetAdapterDataObserver(final RecyclerView.AdapterDataObserver target) {
+        mTarget = target;
+    }
+
+    void setTarget(final RecyclerView.AdapterDataObserver target) {
+        mTarget = target;
+    }
+
+    void setUpdateBatcher(final UpdateBatcher updateBatcher) {
+        mUpdateBatcher = updateBatcher;
+    }
+
+    /**
+     * @return the position of the inner adapter's first item in the target adapter.
+     */
+    abstract int getOffset();
+
+    @Override
+    public void onChanged() {
+        if (mUpdateBatcher != null) {
+            mUpdateBatcher.onChanged();
+        } else {
+            mTarget.onChanged();
+        }
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+        onItemRangeChanged(positionStart, itemCount, null);
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+        if (mUpdateBatcher != null) {
+            mUpdateBatcher.onItemRangeChanged(positionStart + getOffset(), itemCount, payload);
+        } else {
+            mTarget.onItemRangeChanged(positionStart + getOffset(), itemCount, payload);
+        }
+    }
+
+    @Override
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        if (mUpdateBatcher != null) {
+            mUpdateBatcher.onItemRangeInserted(positionStart + getOffset(), itemCount);
+        } else {
+            mTarget.onItemRangeInserted(positionStart + getOffset(), itemCount);
+        }
+    }
+
+    @Override
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        if (mUpdateBatcher != null) {
+            mUpdateBatcher.onItemRangeRemoved(positionStart + getOffset(), itemCount);
+        } else {
+            mTarget.onItemRangeRemoved(positionStart + getOffset(), itemCount);
+        }
+    }
+
+    @Override
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        final int offset = getOffset();
+        if (mUpdateBatcher != null) {
+            mUpdateBatcher.onItemRangeMoved(fromPosition + offset, toPosition + offset, itemCount);
+        } else {
+            mTarget.onItemRangeMoved(fromPosition + offset, toPosition + offset, itemCount);
+        }
+    }
+
+    /**
+     * RecyclerView only supports single item moves, so a block move is replayed as
+     * {@code itemCount} single moves leaving the block at {@code toPosition}.
+     */
+    static void notifyItemRangeMoved(final RecyclerView.Adapter adapter, final int fromPosition, final int toPosition, final int itemCount) {
+        if (fromPosition == toPosition) {
+            return;
+        }
+        for (int i = 0; i < itemCount; i++) {
+            if (fromPosition < toPosition) {
+                adapter.notifyItemMoved(fromPosition, toPosition + itemCount - 1);
+            } else {
+                adapter.notifyItemMoved(fromPosition + i, toPosition + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+import android.util.Log;
+import android.view.Gravity;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.ProgressBar;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Adapter loading its items by pages of a fixed size from a {@link PageLoader}, on a worker
+ * thread.
+ * <p/>
+ * The next page is requested when a row closer than the prefetch distance to the end is bound,
+ * with a loading row inserted at the end until it arrives. Only a window of pages around the
+ * last bound position is kept in memory : the items of the evicted pages are null placeholders,
+ * loaded again when they are bound.
+ * <p/>
+ * The adapter starts empty : call {@link #loadNextPage()} to load the first page.
+ * <p/>
+ * Must only be used from the main thread.
+ */
+public abstract class PagedAdapter<T, VH extends RecyclerAdapterView.ViewHolder> extends RecyclerAdapterView.Adapter<RecyclerAdapterView.ViewHolder> {
+
+    /*
+     * **********************************************************************************
+     * CONSTANTS
+     * **********************************************************************************
+     */
+
+    private static final String LOG_TAG = PagedAdapter.class.getSimpleName();
+
+    public static final int VIEW_TYPE_LOADING = Integer.MAX_VALUE;
+
+    private static final int DEFAULT_PREFETCH_DISTANCE = 10;
+    private static final int DEFAULT_MAX_PAGES = 5;
+
+    private static ExecutorService sPageExecutor;
+
+    /*
+     * **********************************************************************************
+     * ATTRIBUTES
+     * **********************************************************************************
+     */
+
+    private final PageLoader<T> mPageLoader;
+    private final int mPageSize;
+    private final Executor mExecutor;
+    private final Executor mMainThreadExecutor;
+    private RecyclerView.AdapterDataObserver mUpdateTarget = new AdapterNotifier(this);
+
+    // Loaded pages, null for the evicted ones
+    private final ArrayList<List<T>> mPages = new ArrayList<>();
+    private final ArrayList<Boolean> mPagesInFlight = new ArrayList<>();
+    private int mItemCount;
+    private int mPrefetchDistance = DEFAULT_PREFETCH_DISTANCE;
+    private int mMaxPages = DEFAULT_MAX_PAGES;
+    private int mLastBoundPage;
+
+    private boolean mEndReached;
+    private boolean mLoadingNext;
+    private boolean mLoadNextFailed;
+    private boolean mLoadNextPosted;
+    private int mGeneration;
+
+    private final Runnable mLoadNextRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mLoadNextPosted = false;
+            loadNextPage();
+        }
+    };
+
+    /*
+     * **********************************************************************************
+     * CONSTRUCTORS
+     * **********************************************************************************
+     */
+
+    public PagedAdapter(final PageLoader<T> pageLoader, final int pageSize) {
+        this(pageLoader, pageSize, getDefaultExecutor());
+    }
+
+    public PagedAdapter(final PageLoader<T> pageLoader, final int pageSize, final Executor executor) {
+        this(pageLoader, pageSize, executor, new MainThreadExecutor());
+    }
+
+    PagedAdapter(final PageLoader<T> pageLoader, final int pageSize, final Executor executor, final Executor mainThreadExecutor) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The page size must be positive : " + pageSize);
+        }
+        mPageLoader = pageLoader;
+        mPageSize = pageSize;
+        mExecutor = executor;
+        mMainThreadExecutor = mainThreadExecutor;
+    }
+
+    /*
+     * **********************************************************************************
+     * ABSTRACT METHODS
+     * **********************************************************************************
+     */
+
+    protected abstract VH onCreateItemViewHolder(ViewGroup parent, int viewType);
+
+    /**
+     * @param item the item, or null if its page is being loaded
+     */
+    protected abstract void onBindItemViewHolder(VH holder, int position, T item);
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    /**
+     * Number of rows before the end of the loaded items from which the next page is requested.
+     */
+    public void setPrefetchDistance(final int prefetchDistance) {
+        mPrefetchDistance = prefetchDistance;
+    }
+
+    /**
+     * Number of pages kept in memory around the last bound position, at least 2. The window
+     * must hold more than a screen of rows, or visible rows would keep being evicted.
+     */
+    public void setMaxPages(final int maxPages) {
+        mMaxPages = Math.max(2, maxPages);
+    }
+
+    public boolean isEndReached() {
+        return mEndReached;
+    }
+
+    public boolean isLoading() {
+        return mLoadingNext;
+    }
+
+    /**
+     * Requests the next page, if it is not loading or after a failed load.
+     */
+    public void loadNextPage() {
+        if (mLoadingNext || mEndReached) {
+            return;
+        }
+        mLoadingNext = true;
+        mLoadNextFailed = false;
+        mUpdateTarget.onItemRangeInserted(mItemCount, 1);
+        loadPage(mPages.size());
+    }
+
+    /**
+     * Drops all the pages and loads the first one again.
+     */
+    public void refresh() {
+        mGeneration++;
+        final int itemCount = getItemCount();
+        mPages.clear();
+        mPagesInFlight.clear();
+        mItemCount = 0;
+        mEndReached = false;
+        mLoadingNext = false;
+        mLoadNextFailed = false;
+        mLastBoundPage = 0;
+        if (itemCount > 0) {
+            mUpdateTarget.onItemRangeRemoved(0, itemCount);
+        }
+        loadNextPage();
+    }
+
+    @Override
+    public T getItem(int position) {
+        if (position >= mItemCount) {
+            return null;
+        }
+        final List<T> page = mPages.get(position / mPageSize);
+        return page != null ? page.get(position % mPageSize) : null;
+    }
+
+    @Override
+    public int getItemCount() {
+        return mLoadingNext ? mItemCount + 1 : mItemCount;
+    }
+
+    @Override
+    public final int getItemViewType(int position) {
+        return position == mItemCount ? VIEW_TYPE_LOADING : getPagedItemViewType(position);
+    }
+
+    protected int getPagedItemViewType(final int position) {
+        return 0;
+    }
+
+    @Override
+    public RecyclerAdapterView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        if (viewType == VIEW_TYPE_LOADING) {
+            return onCreateLoadingViewHolder(parent);
+        }
+        return onCreateItemViewHolder(parent, viewType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onBindViewHolder(RecyclerAdapterView.ViewHolder holder, int position) {
+        if (position >= mItemCount) {
+            return;
+        }
+        final int page = position / mPageSize;
+        mLastBoundPage = page;
+        if (mPages.get(page) == null) {
+            loadPage(page);
+        }
+        if (!mLoadingNext && !mEndReached && !mLoadNextFailed && !mLoadNextPosted
+                && position >= mItemCount - mPrefetchDistance) {
+            // Notifications are not allowed while binding
+            mLoadNextPosted = true;
+            mMainThreadExecutor.execute(mLoadNextRunnable);
+        }
+        onBindItemViewHolder((VH) holder, position, getItem(position));
+    }
+
+    /**
+     * Creates the holder of the loading row, by default a centered progress bar.
+     */
+    protected RecyclerAdapterView.ViewHolder onCreateLoadingViewHolder(final ViewGroup parent) {
+        final FrameLayout layout = new FrameLayout(parent.getContext());
+        layout.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        final ProgressBar progressBar = new ProgressBar(parent.getContext());
+        layout.addView(progressBar, new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT, Gravity.CENTER));
+        return new RecyclerAdapterView.ViewHolder(layout);
+    }
+
+    /**
+     * Called when a page failed to load. The next page can be requested again with {@link #loadNextPage()}.
+     */
+    protected void onPageLoadFailed(final int page, final Exception e) {
+        Log.w(LOG_TAG, "Failed to load the page " + page, e);
+    }
+
+    /**
+     * Dispatches the updates of the rows to {@code target} instead of the observers of the adapter.
+     */
+    void setUpdateTarget(final RecyclerView.AdapterDataObserver target) {
+        mUpdateTarget = target;
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private void loadPage(final int page) {
+        while (mPagesInFlight.size() <= page) {
+            mPagesInFlight.add(Boolean.FALSE);
+        }
+        if (mPagesInFlight.get(page)) {
+            return;
+        }
+        mPagesInFlight.set(page, Boolean.TRUE);
+        final int generation = mGeneration;
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                List<T> items = null;
+                Exception error = null;
+                try {
+                    items = mPageLoader.loadPage(page, mPageSize);
+                } catch (Exception e) {
+                    error = e;
+                }
+                final List<T> loadedItems = items;
+                final Exception loadError = error;
+                mMainThreadExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mGeneration) {
+                            onPageLoaded(page, loadedItems, loadError);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void onPageLoaded(final int page, final List<T> items, final Exception error) {
+        mPagesInFlight.set(page, Boolean.FALSE);
+        final boolean nextPage = page == mPages.size();
+        if (nextPage) {
+            mLoadingNext = false;
+            mUpdateTarget.onItemRangeRemoved(mItemCount, 1);
+        }
+        if (error != null || items == null) {
+            mLoadNextFailed |= nextPage;
+            onPageLoadFailed(page, error);
+            return;
+        }
+        if (nextPage) {
+            mPages.add(items);
+            mEndReached = items.size() < mPageSize;
+            final int start = mItemCount;
+            mItemCount += items.size();
+            if (!items.isEmpty()) {
+                mUpdateTarget.onItemRangeInserted(start, items.size());
+            }
+            mLastBoundPage = page;
+        } else {
+            // Placeholders of an evicted page
+            mPages.set(page, items);
+            mUpdateTarget.onItemRangeChanged(page * mPageSize, Math.min(mPageSize, mItemCount - page * mPageSize));
+        }
+        evictPages();
+    }
+
+    /**
+     * Drops the pages out of the window centered on the last bound page.
+     */
+    private void evictPages() {
+        final int first = Math.max(0, mLastBoundPage - mMaxPages / 2);
+        final int last = first + mMaxPages - 1;
+        for (int page = 0; page < mPages.size(); page++) {
+            if ((page < first || page > last) && mPages.get(page) != null) {
+                mPages.set(page, null);
+                // Rows kept by the RecyclerView's view cache must be bound again as placeholders
+                mUpdateTarget.onItemRangeChanged(page * mPageSize, Math.min(mPageSize, mItemCount - page * mPageSize));
+            }
+        }
+    }
+
+    private static synchronized Executor getDefaultExecutor() {
+        if (sPageExecutor == null) {
+            sPageExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "RecyclerAdapterView-page");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sPageExecutor;
+    }
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    public interface PageLoader<T> {
+
+        /**
+         * Loads a page, called on the worker thread. A page with less than {@code pageSize}
+         * items is the last one.
+         */
+        List<T> loadPage(int page, int pageSize) throws Exception;
+    }
+}
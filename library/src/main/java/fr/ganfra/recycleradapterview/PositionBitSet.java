@@ -0,0 +1,231 @@
+package fr.ganfra.recycleradapterview;
+
+import java.util.Arrays;
+
+/**
+ * Set of adapter positions packed in a long array, one bit per position.
+ * <p/>
+ * Inserting or removing a range shifts the following bits a word at a time, so the set follows
+ * the adapter's range notifications in O(size / 64) without any per-position object.
+ */
+final class PositionBitSet {
+
+    private static final int WORD_SHIFT = 6;
+
+    private long[] mWords = new long[0];
+    // Second buffer the shifted words are written into, then swapped
+    private long[] mShiftBuffer = new long[0];
+    private int mSize;
+    private int mCount;
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    /**
+     * @return the number of positions covered by the set
+     */
+    int size() {
+        return mSize;
+    }
+
+    /**
+     * @return the number of positions in the set
+     */
+    int count() {
+        return mCount;
+    }
+
+    boolean get(final int position) {
+        return position >= 0 && position < mSize
+                && (mWords[position >>> WORD_SHIFT] & (1L << position)) != 0;
+    }
+
+    void set(final int position, final boolean value) {
+        if (position < 0 || position >= mSize) {
+            throw new IndexOutOfBoundsException("Position " + position + " out of [0, " + mSize + ")");
+        }
+        final int index = position >>> WORD_SHIFT;
+        final long bit = 1L << position;
+        if (value && (mWords[index] & bit) == 0) {
+            mWords[index] |= bit;
+            mCount++;
+        } else if (!value && (mWords[index] & bit) != 0) {
+            mWords[index] &= ~bit;
+            mCount--;
+        }
+    }
+
+    void setAll() {
+        final int wordCount = wordCount(mSize);
+        Arrays.fill(mWords, 0, wordCount, -1L);
+        if (wordCount > 0) {
+            mWords[wordCount - 1] = maskBelow(mSize, wordCount - 1);
+        }
+        mCount = mSize;
+    }
+
+    void clear() {
+        Arrays.fill(mWords, 0, wordCount(mSize), 0L);
+        mCount = 0;
+    }
+
+    /**
+     * Clears the set and makes it cover {@code size} positions.
+     */
+    void reset(final int size) {
+        clear();
+        mSize = 0;
+        ensureCapacity(size);
+        mSize = size;
+    }
+
+    /**
+     * @return the first position of the set at or after {@code from}, or -1
+     */
+    int nextSetBit(final int from) {
+        if (from >= mSize) {
+            return -1;
+        }
+        int index = from >>> WORD_SHIFT;
+        long word = mWords[index] & ~maskBelow(from, index);
+        final int wordCount = wordCount(mSize);
+        while (word == 0) {
+            if (++index == wordCount) {
+                return -1;
+            }
+            word = mWords[index];
+        }
+        return (index << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Inserts {@code count} positions out of the set at {@code position}.
+     */
+    void insert(final int position, final int count) {
+        final int size = mSize + count;
+        ensureCapacity(size);
+        final int end = position + count;
+        final int wordCount = wordCount(size);
+        for (int i = 0; i < wordCount; i++) {
+            mShiftBuffer[i] = (mWords[i] & maskBelow(position, i))
+                    | (readWord((i << WORD_SHIFT) - count) & ~maskBelow(end, i));
+        }
+        swapBuffers(wordCount);
+        mSize = size;
+    }
+
+    /**
+     * Removes the {@code count} positions starting at {@code position}.
+     */
+    void remove(final int position, final int count) {
+        final int size = mSize - count;
+        final int wordCount = wordCount(size);
+        for (int i = 0; i < wordCount; i++) {
+            mShiftBuffer[i] = (mWords[i] & maskBelow(position, i))
+                    | (readWord((i << WORD_SHIFT) + count) & ~maskBelow(position, i) & maskBelow(size, i));
+        }
+        swapBuffers(wordCount);
+        mSize = size;
+        mCount = 0;
+        for (int i = 0; i < wordCount; i++) {
+            mCount += Long.bitCount(mWords[i]);
+        }
+    }
+
+    /**
+     * Moves the {@code count} positions starting at {@code fromPosition} so they start at
+     * {@code toPosition}, shifting the positions in between the other way.
+     */
+    void move(final int fromPosition, final int toPosition, final int count) {
+        if (fromPosition == toPosition || count <= 0) {
+            return;
+        }
+        final int start = Math.min(fromPosition, toPosition);
+        final int end = Math.max(fromPosition, toPosition) + count;
+        // Ranges of the new positions [start, middle) and [middle, end), read at these offsets
+        final int middle;
+        final int firstOffset;
+        final int secondOffset;
+        if (fromPosition < toPosition) {
+            middle = toPosition;
+            firstOffset = count;
+            secondOffset = fromPosition - toPosition;
+        } else {
+            middle = toPosition + count;
+            firstOffset = fromPosition - toPosition;
+            secondOffset = -count;
+        }
+        final int firstWord = start >>> WORD_SHIFT;
+        final int lastWord = (end - 1) >>> WORD_SHIFT;
+        for (int i = firstWord; i <= lastWord; i++) {
+            final int wordStart = i << WORD_SHIFT;
+            final long first = maskBelow(middle, i) & ~maskBelow(start, i);
+            final long second = maskBelow(end, i) & ~maskBelow(middle, i);
+            mShiftBuffer[i] = (mWords[i] & ~(first | second))
+                    | (readWord(wordStart + firstOffset) & first)
+                    | (readWord(wordStart + secondOffset) & second);
+        }
+        System.arraycopy(mShiftBuffer, firstWord, mWords, firstWord, lastWord - firstWord + 1);
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    /**
+     * @return the 64 bits starting at the position {@code start}, which may be negative
+     */
+    private long readWord(final int start) {
+        if (start < 0) {
+            return start <= -64 ? 0 : wordAt(0) << -start;
+        }
+        final int index = start >>> WORD_SHIFT;
+        final int shift = start & 63;
+        final long low = wordAt(index) >>> shift;
+        return shift == 0 ? low : low | wordAt(index + 1) << (64 - shift);
+    }
+
+    private long wordAt(final int index) {
+        return index < mWords.length ? mWords[index] : 0;
+    }
+
+    /**
+     * Makes the shift buffer the words of the set, clearing its words past {@code wordCount} :
+     * the words past the size are always 0.
+     */
+    private void swapBuffers(final int wordCount) {
+        Arrays.fill(mShiftBuffer, wordCount, mShiftBuffer.length, 0L);
+        final long[] words = mWords;
+        mWords = mShiftBuffer;
+        mShiftBuffer = words;
+    }
+
+    private void ensureCapacity(final int size) {
+        final int wordCount = wordCount(size);
+        if (wordCount > mWords.length) {
+            final int capacity = Math.max(wordCount, mWords.length * 2);
+            mWords = Arrays.copyOf(mWords, capacity);
+            mShiftBuffer = new long[capacity];
+        }
+    }
+
+    private static int wordCount(final int size) {
+        return (size + 63) >>> WORD_SHIFT;
+    }
+
+    /**
+     * @return the bits of the word {@code index} holding the positions before {@code position}
+     */
+    private static long maskBelow(final int position, final int index) {
+        final int offset = position - (index << WORD_SHIFT);
+        if (offset >= 64) {
+            return -1L;
+        }
+        return offset <= 0 ? 0 : (1L << offset) - 1;
+    }
+}
@@ -0,0 +1,122 @@
+package fr.ganfra.recycleradapterview;
+
+import java.util.Arrays;
+
+/**
+ * Fenwick tree over a list of non-negative sizes, giving the offset of an element and the
+ * element containing an offset in O(log n). Inserting or removing an element rebuilds the
+ * tree in O(n).
+ */
+final class PrefixSumTree {
+
+    private int[] mValues = new int[8];
+    // 1-based Fenwick tree, mTree[i] holds the sum of the values in (i - lowbit(i), i]
+    private int[] mTree = new int[9];
+    private int mSize;
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    int size() {
+        return mSize;
+    }
+
+    int get(final int index) {
+        return mValues[index];
+    }
+
+    int total() {
+        return prefixSum(mSize);
+    }
+
+    /**
+     * @return the sum of the values before {@code index}
+     */
+    int prefixSum(final int index) {
+        int sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += mTree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * @return the index of the element containing {@code offset}, ie the one for which
+     * {@code prefixSum(index) <= offset < prefixSum(index + 1)}, or {@link #size()} if
+     * {@code offset} is after the last element
+     */
+    int indexOf(final int offset) {
+        int index = 0;
+        int remaining = offset;
+        for (int step = Integer.highestOneBit(Math.max(mSize, 1)); step > 0; step >>= 1) {
+            final int next = index + step;
+            if (next <= mSize && mTree[next] <= remaining) {
+                index = next;
+                remaining -= mTree[next];
+            }
+        }
+        return index;
+    }
+
+    void set(final int index, final int value) {
+        add(index, value - mValues[index]);
+    }
+
+    void add(final int index, final int delta) {
+        mValues[index] += delta;
+        for (int i = index + 1; i <= mSize; i += i & -i) {
+            mTree[i] += delta;
+        }
+    }
+
+    /**
+     * Replaces the elements with {@code size} elements of value 0.
+     */
+    void reset(final int size) {
+        if (size > mValues.length) {
+            mValues = new int[size];
+            mTree = new int[size + 1];
+        } else {
+            Arrays.fill(mValues, 0);
+            Arrays.fill(mTree, 0);
+        }
+        mSize = size;
+    }
+
+    void insert(final int index, final int value) {
+        if (mSize == mValues.length) {
+            mValues = Arrays.copyOf(mValues, mSize * 2);
+            mTree = new int[mSize * 2 + 1];
+        }
+        System.arraycopy(mValues, index, mValues, index + 1, mSize - index);
+        mValues[index] = value;
+        mSize++;
+        rebuild();
+    }
+
+    void remove(final int index) {
+        System.arraycopy(mValues, index + 1, mValues, index, mSize - index - 1);
+        mSize--;
+        rebuild();
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private void rebuild() {
+        Arrays.fill(mTree, 0);
+        for (int i = 1; i <= mSize; i++) {
+            mTree[i] += mValues[i - 1];
+            final int parent = i + (i & -i);
+            if (parent <= mSize) {
+                mTree[parent] += mTree[i];
+            }
+        }
+    }
+}
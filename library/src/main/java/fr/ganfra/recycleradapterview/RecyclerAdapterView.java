@@ -2,16 +2,24 @@ package fr.ganfra.recycleradapterview;
 
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.annotation.TargetApi;
+import android.graphics.Canvas;
 import android.graphics.drawable.Drawable;
+import android.os.Build;
 import android.support.annotation.Nullable;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.util.SparseIntArray;
 import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
 import android.widget.AdapterView;
+import android.widget.Checkable;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public class RecyclerAdapterView extends RecyclerView {
 
@@ -26,6 +34,20 @@ public class RecyclerAdapterView extends RecyclerView {
             android.R.attr.listDivider, android.R.attr.dividerHeight,
     };
 
+    private static final int EMPTY_STATE_UNKNOWN = -1;
+    private static final int EMPTY_STATE_NOT_EMPTY = 0;
+    private static final int EMPTY_STATE_EMPTY = 1;
+
+    public static final int UPDATE_DATA_SET_CHANGED = 0;
+    public static final int UPDATE_CHANGE = 1;
+    public static final int UPDATE_INSERT = 2;
+    public static final int UPDATE_REMOVE = 3;
+    public static final int UPDATE_MOVE = 4;
+
+    public static final int CHOICE_MODE_NONE = 0;
+    public static final int CHOICE_MODE_SINGLE = 1;
+    public static final int CHOICE_MODE_MULTIPLE = 2;
+
 
     /*
      * **********************************************************************************
@@ -34,13 +56,38 @@ public class RecyclerAdapterView extends RecyclerView {
      */
 
     private View mEmptyView;
+    private boolean mEmptyViewIgnoresFixedViews;
+    private int mEmptyState = EMPTY_STATE_UNKNOWN;
+    private int mItemCount;
     private AdapterView.OnItemClickListener mOnItemClickListener;
     private AdapterView.OnItemLongClickListener mOnItemLongClickListener;
 
+    private final ChoiceState mChoiceState = new ChoiceState();
+
     private Context mContext;
 
-    private ArrayList<View> mHeaderViews = new ArrayList<>();
-    private ArrayList<View> mFooterViews = new ArrayList<>();
+    private ArrayList<FixedViewRecyclerAdapter.FixedViewInfo> mHeaderViews = new ArrayList<>();
+    private ArrayList<FixedViewRecyclerAdapter.FixedViewInfo> mFooterViews = new ArrayList<>();
+
+    private FixedViewRecyclerAdapter mFixedViewAdapter;
+
+    private ViewHolderPrewarmer mViewHolderPrewarmer;
+
+    private float mScrollVelocity;
+    private long mLastScrollTimeNanos;
+    private int mDeferredBindingVelocity;
+
+    private OnPrefetchListener mOnPrefetchListener;
+    private int mPrefetchDistance;
+    private int mScrollDirection = 1;
+    private int mPrefetchFirst = NO_POSITION;
+    private int mPrefetchLast = NO_POSITION;
+
+    private UpdateBatcher mUpdateBatcher;
+    private OnUpdateBatchListener mOnUpdateBatchListener;
+
+    private RecyclerAdapterViewMetrics mMetrics;
+    private DecorationTimer mDecorationTimer;
 
     // XML ATTRIBUTES
     private Drawable mDivider;
@@ -63,6 +110,9 @@ public class RecyclerAdapterView extends RecyclerView {
         super(context, attrs, defStyle);
         mContext = context;
         setLayoutManager(new LinearLayoutManager(context));
+        addOnScrollListener(mScrollListener);
+        mDeferredBindingVelocity = ViewConfiguration.get(context).getScaledMaximumFlingVelocity() / 3;
+        addOnChildAttachStateChangeListener(mItemAttachListener);
         initXmlAttributes(context);
         if (mDivider != null) {
             addItemDecoration(new DividerItemDecoration(mDivider, mDividerHeight));
@@ -104,26 +154,63 @@ public class RecyclerAdapterView extends RecyclerView {
 
     @Override
     public void setAdapter(RecyclerView.Adapter adapter) {
+        final RecyclerView.Adapter previousAdapter = getDataAdapter();
+        adapter = prepareAdapter(adapter);
+        super.setAdapter(adapter);
+        onAdapterChanged(adapter, previousAdapter);
+    }
+
+    @Override
+    public void swapAdapter(RecyclerView.Adapter adapter, boolean removeAndRecycleExistingViews) {
+        final RecyclerView.Adapter previousAdapter = getDataAdapter();
+        adapter = prepareAdapter(adapter);
+        super.swapAdapter(adapter, removeAndRecycleExistingViews);
+        onAdapterChanged(adapter, previousAdapter);
+    }
+
+    private RecyclerView.Adapter prepareAdapter(RecyclerView.Adapter adapter) {
+        flushPendingUpdates();
         unregisterDataObservers(adapter);
         try {
             adapter = wrapAdapterIfNeeded((RecyclerAdapterView.Adapter) adapter);
         } catch (ClassCastException e) {
             Log.v(LOG_TAG, "Your adapter must extends RecyclerAdapterView.Adapter instead of RecyclerView.Adapter");
         }
-        super.setAdapter(adapter);
+        return adapter;
+    }
+
+    private void onAdapterChanged(final RecyclerView.Adapter adapter, final RecyclerView.Adapter previousAdapter) {
+        mFixedViewAdapter = adapter instanceof FixedViewRecyclerAdapter ? (FixedViewRecyclerAdapter) adapter : null;
+        // Wrapping or unwrapping the same adapter also detaches it from the view : only an adapter
+        // that has been replaced drops its pre-inflated views
+        if (previousAdapter instanceof Adapter && previousAdapter != getDataAdapter()) {
+            ((Adapter) previousAdapter).clearInflatedItemViews();
+        }
+        mPrefetchFirst = NO_POSITION;
+        mPrefetchLast = NO_POSITION;
         if (adapter != null) {
             adapter.registerAdapterDataObserver(mAdapterDataObserver);
-            checkIfEmpty();
         }
+        resetItemCount();
+        checkIfEmpty();
+        updateChoiceAdapter();
     }
 
+    private RecyclerView.Adapter getDataAdapter() {
+        final RecyclerView.Adapter adapter = getAdapter();
+        if (adapter instanceof FixedViewRecyclerAdapter) {
+            return ((FixedViewRecyclerAdapter) adapter).getWrappedAdapter();
+        }
+        return adapter;
+    }
 
     private void unregisterDataObservers(final RecyclerView.Adapter newAdapter) {
         final RecyclerView.Adapter currentAdapter = getAdapter();
 
-        if (currentAdapter != null && newAdapter != null) {
+        if (currentAdapter != null) {
+            // Also when the adapter is removed, or its notifications would still update the item count
             currentAdapter.unregisterAdapterDataObserver(mAdapterDataObserver);
-            if (currentAdapter instanceof FixedViewRecyclerAdapter && !(newAdapter instanceof FixedViewRecyclerAdapter)) {
+            if (currentAdapter instanceof FixedViewRecyclerAdapter && newAdapter != currentAdapter) {
                 ((FixedViewRecyclerAdapter) currentAdapter).unregisterWrapperDataObserver();
             }
         }
@@ -131,46 +218,447 @@ public class RecyclerAdapterView extends RecyclerView {
 
 
 
+    private OnScrollListener mScrollListener = new OnScrollListener() {
+        @Override
+        public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+            if (newState != SCROLL_STATE_SETTLING) {
+                bindDeferredViewHolders();
+            }
+            if (newState != SCROLL_STATE_IDLE) {
+                flushPendingUpdates();
+            } else {
+                mScrollVelocity = 0;
+                mLastScrollTimeNanos = 0;
+                if (getRecycledViewPool() instanceof AdaptiveRecycledViewPool) {
+                    ((AdaptiveRecycledViewPool) getRecycledViewPool()).resize();
+                }
+            }
+        }
+
+        @Override
+        public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+            final int delta = isVerticalScroll() ? dy : dx;
+            updateScrollVelocity(delta);
+            if (delta != 0) {
+                mScrollDirection = delta > 0 ? 1 : -1;
+            }
+            if (mOnPrefetchListener != null) {
+                updatePrefetchRange();
+            }
+        }
+    };
+
+    @Override
+    public boolean fling(int velocityX, int velocityY) {
+        final boolean fling = super.fling(velocityX, velocityY);
+        if (fling) {
+            mScrollVelocity = isVerticalScroll() ? velocityY : velocityX;
+            mLastScrollTimeNanos = System.nanoTime();
+        }
+        return fling;
+    }
+
+    @Override
+    public void setRecycledViewPool(RecycledViewPool pool) {
+        final RecycledViewPool oldPool = getRecycledViewPool();
+        if (oldPool instanceof AdaptiveRecycledViewPool) {
+            ((AdaptiveRecycledViewPool) oldPool).removeHost(this);
+        }
+        super.setRecycledViewPool(pool);
+        if (pool instanceof AdaptiveRecycledViewPool) {
+            // The pool sizes each view type from the number of visible holders
+            ((AdaptiveRecycledViewPool) pool).addHost(this);
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthSpec, int heightSpec) {
+        flushPendingUpdates();
+        super.onMeasure(widthSpec, heightSpec);
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        flushPendingUpdates();
+        if (mMetrics == null) {
+            super.onLayout(changed, l, t, r, b);
+            return;
+        }
+        final long start = System.nanoTime();
+        mMetrics.onLayoutStarted();
+        super.onLayout(changed, l, t, r, b);
+        mMetrics.onLayoutFinished(System.nanoTime() - start);
+    }
+
+    @Override
+    public void draw(Canvas c) {
+        if (mMetrics == null) {
+            super.draw(c);
+            return;
+        }
+        final long start = System.nanoTime();
+        super.draw(c);
+        mMetrics.onFrameDrawn(System.nanoTime() - start);
+    }
+
+    @Override
+    public void addItemDecoration(ItemDecoration decor, int index) {
+        if (mDecorationTimer == null) {
+            super.addItemDecoration(decor, index);
+            return;
+        }
+        // Kept between the timing markers, the start one being the first decoration
+        if (index < 0) {
+            super.removeItemDecoration(mDecorationTimer.mEndMarker);
+            super.addItemDecoration(decor, -1);
+            super.addItemDecoration(mDecorationTimer.mEndMarker, -1);
+        } else {
+            super.addItemDecoration(decor, index + 1);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        flushPendingUpdates();
+        cancelPrewarm();
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * Change animations cross-fade a new view holder, so the payloads of a change are only
+     * delivered to {@link Adapter#onBindViewHolder(ViewHolder, int, java.util.List)}
+     * when they are disabled.
+     */
+    public void setChangeAnimationsEnabled(final boolean enabled) {
+        final ItemAnimator itemAnimator = getItemAnimator();
+        if (itemAnimator != null) {
+            itemAnimator.setSupportsChangeAnimations(enabled);
+        }
+    }
+
     /*
      * **********************************************************************************
-     * EMPTY VIEW
+     * SCROLL VELOCITY AND DEFERRED BINDING
      * **********************************************************************************
      */
 
-    private AdapterDataObserver mAdapterDataObserver = new AdapterDataObserver() {
-        @Override
-        public void onChanged() {
-            super.onChanged();
-            checkIfEmpty();
+    /**
+     * @return the current scroll velocity along the scrolling axis in pixels per second,
+     * 0 when the list is idle
+     */
+    public int getScrollVelocity() {
+        return (int) mScrollVelocity;
+    }
+
+    /**
+     * Sets the fling velocity, in pixels per second, above which the adapters bind
+     * placeholders instead of the full content of the rows.
+     *
+     * @see Adapter#onBindPlaceholderViewHolder(ViewHolder, int)
+     */
+    public void setDeferredBindingVelocity(final int deferredBindingVelocity) {
+        mDeferredBindingVelocity = deferredBindingVelocity;
+    }
+
+    public int getDeferredBindingVelocity() {
+        return mDeferredBindingVelocity;
+    }
+
+    boolean isBindingDeferred() {
+        return getScrollState() == SCROLL_STATE_SETTLING && Math.abs(mScrollVelocity) >= mDeferredBindingVelocity;
+    }
+
+    private void updateScrollVelocity(final int delta) {
+        final long now = System.nanoTime();
+        final long elapsed = now - mLastScrollTimeNanos;
+        // Deltas spread over more than a few frames don't tell the current velocity
+        if (mLastScrollTimeNanos != 0 && elapsed > 0 && elapsed < 100000000L) {
+            mScrollVelocity = (mScrollVelocity + delta * 1000000000f / elapsed) / 2;
         }
+        mLastScrollTimeNanos = now;
+    }
+
+    private boolean isVerticalScroll() {
+        final LayoutManager layoutManager = getLayoutManager();
+        return layoutManager == null || layoutManager.canScrollVertically();
+    }
 
+    private OnChildAttachStateChangeListener mItemAttachListener = new OnChildAttachStateChangeListener() {
         @Override
-        public void onItemRangeChanged(int positionStart, int itemCount) {
-            super.onItemRangeChanged(positionStart, itemCount);
-            checkIfEmpty();
+        public void onChildViewAttachedToWindow(View view) {
+            // A cached row is attached again without being bound : it may still show a placeholder,
+            // or a checked state changed in the meantime
+            if (!isBindingDeferred()) {
+                bindDeferredViewHolder(getChildViewHolder(view));
+            }
+            refreshCheckedState(view);
         }
 
         @Override
-        public void onItemRangeInserted(int positionStart, int itemCount) {
-            super.onItemRangeInserted(positionStart, itemCount);
-            checkIfEmpty();
+        public void onChildViewDetachedFromWindow(View view) {
         }
+    };
 
-        @Override
-        public void onItemRangeRemoved(int positionStart, int itemCount) {
-            super.onItemRangeRemoved(positionStart, itemCount);
-            checkIfEmpty();
+    /**
+     * Binds the full content of the visible rows that got a placeholder during a fling.
+     */
+    private void bindDeferredViewHolders() {
+        final int childCount = getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            bindDeferredViewHolder(getChildViewHolder(getChildAt(i)));
         }
+    }
 
-        @Override
-        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
-            super.onItemRangeMoved(fromPosition, toPosition, itemCount);
-            checkIfEmpty();
+    private void bindDeferredViewHolder(final RecyclerView.ViewHolder holder) {
+        if (!(holder instanceof ViewHolder) || ((ViewHolder) holder).mFullyBound) {
+            return;
         }
-    };
+        final RecyclerView.Adapter adapter = getDataAdapter();
+        if (!(adapter instanceof RecyclerAdapterView.Adapter)) {
+            return;
+        }
+        final int position = holder.getAdapterPosition();
+        if (position != NO_POSITION && !isFixedView(position)) {
+            ((RecyclerAdapterView.Adapter) adapter).bindDeferredViewHolder((ViewHolder) holder, position - getHeaderCount());
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * PREFETCH
+     * **********************************************************************************
+     */
+
+    /**
+     * Reports the items expected to become visible within the next {@code lookaheadPixels}
+     * of scroll in the current direction, extended by the distance scrolled in 100ms at the
+     * current velocity. Positions are in the adapter, header and footer views excluded.
+     */
+    public void setOnPrefetchListener(final OnPrefetchListener onPrefetchListener, final int lookaheadPixels) {
+        mOnPrefetchListener = onPrefetchListener;
+        mPrefetchDistance = lookaheadPixels;
+        mPrefetchFirst = NO_POSITION;
+        mPrefetchLast = NO_POSITION;
+    }
+
+    private void updatePrefetchRange() {
+        final int childCount = getChildCount();
+        if (childCount == 0) {
+            return;
+        }
+        final boolean vertical = isVerticalScroll();
+        int firstVisible = Integer.MAX_VALUE;
+        int lastVisible = Integer.MIN_VALUE;
+        int start = Integer.MAX_VALUE;
+        int end = Integer.MIN_VALUE;
+        for (int i = 0; i < childCount; i++) {
+            final View child = getChildAt(i);
+            final int position = getChildLayoutPosition(child);
+            if (position == NO_POSITION) {
+                continue;
+            }
+            firstVisible = Math.min(firstVisible, position);
+            lastVisible = Math.max(lastVisible, position);
+            start = Math.min(start, vertical ? child.getTop() : child.getLeft());
+            end = Math.max(end, vertical ? child.getBottom() : child.getRight());
+        }
+        if (firstVisible > lastVisible || end <= start) {
+            return;
+        }
+
+        // Items ahead, estimated from the density of the visible ones
+        final int distance = mPrefetchDistance + (int) (Math.abs(mScrollVelocity) / 10);
+        final int count = (int) Math.ceil((double) distance * (lastVisible - firstVisible + 1) / (end - start));
+        final int headerCount = getHeaderCount();
+        final int dataCount = getAdapter().getItemCount() - (mFixedViewAdapter != null ? headerCount + getFooterCount() : 0);
+        final int offset = mFixedViewAdapter != null ? headerCount : 0;
+        final int visibleFirst = Math.max(0, firstVisible - offset);
+        final int visibleLast = Math.min(dataCount - 1, lastVisible - offset);
+        int first;
+        int last;
+        if (mScrollDirection > 0) {
+            first = Math.max(0, lastVisible - offset + 1);
+            last = Math.min(dataCount - 1, lastVisible - offset + count);
+        } else {
+            first = Math.max(0, firstVisible - offset - count);
+            last = Math.min(dataCount - 1, firstVisible - offset - 1);
+        }
+        if (first > last) {
+            first = NO_POSITION;
+            last = NO_POSITION;
+        }
+        if (first == mPrefetchFirst && last == mPrefetchLast) {
+            return;
+        }
+        final int oldFirst = mPrefetchFirst;
+        final int oldLast = mPrefetchLast;
+        mPrefetchFirst = first;
+        mPrefetchLast = last;
+        // Items that left the window without becoming visible are cancelled, the new ones are prefetched
+        dispatchPrefetchRange(oldFirst, oldLast, first, last, visibleFirst, visibleLast, false);
+        dispatchPrefetchRange(first, last, oldFirst, oldLast, NO_POSITION, NO_POSITION, true);
+    }
+
+    /**
+     * Dispatches the range [{@code first}, {@code last}] minus the ranges [{@code excludedFirst},
+     * {@code excludedLast}] and [{@code excludedFirst2}, {@code excludedLast2}], without allocating.
+     */
+    private void dispatchPrefetchRange(final int first, final int last, final int excludedFirst, final int excludedLast,
+                                       final int excludedFirst2, final int excludedLast2, final boolean prefetch) {
+        if (first == NO_POSITION || first > last) {
+            return;
+        }
+        if (excludedFirst == NO_POSITION || excludedLast < first || excludedFirst > last) {
+            if (excludedFirst2 != NO_POSITION) {
+                dispatchPrefetchRange(first, last, excludedFirst2, excludedLast2, NO_POSITION, NO_POSITION, prefetch);
+            } else if (prefetch) {
+                mOnPrefetchListener.onPrefetch(first, last);
+            } else {
+                mOnPrefetchListener.onPrefetchCancelled(first, last);
+            }
+            return;
+        }
+        if (first < excludedFirst) {
+            dispatchPrefetchRange(first, excludedFirst - 1, excludedFirst2, excludedLast2, NO_POSITION, NO_POSITION, prefetch);
+        }
+        if (excludedLast < last) {
+            dispatchPrefetchRange(excludedLast + 1, last, excludedFirst2, excludedLast2, NO_POSITION, NO_POSITION, prefetch);
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * VIEW HOLDERS PREWARMING
+     * **********************************************************************************
+     */
+
+    /**
+     * Creates view holders of the current adapter while the main looper is idle and puts them in
+     * the recycled view pool, until {@code targetCounts} holders per view type have been created,
+     * the pool is full for the type or {@code budgetMillis} of creation time are spent. The
+     * capacity of a type is raised to its target count if it is lower, never lowered. Must be
+     * called on the main thread.
+     *
+     * @param targetCounts number of holders to create, keyed by view type
+     */
+    public void prewarmViewHolders(final SparseIntArray targetCounts, final long budgetMillis, final OnPrewarmListener listener) {
+        cancelPrewarm();
+        if (getAdapter() == null) {
+            if (listener != null) {
+                listener.onPrewarmFinished(0);
+            }
+            return;
+        }
+        mViewHolderPrewarmer = new ViewHolderPrewarmer(this, targetCounts, budgetMillis * 1000000L, listener);
+        mViewHolderPrewarmer.start();
+    }
+
+    public void cancelPrewarm() {
+        if (mViewHolderPrewarmer != null) {
+            mViewHolderPrewarmer.cancel();
+            mViewHolderPrewarmer = null;
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * UPDATE BATCHING
+     * **********************************************************************************
+     */
+
+    /**
+     * When enabled, the adapter notifications received during a frame are merged and
+     * dispatched once, on the next animation frame.
+     */
+    public void setUpdateBatchingEnabled(final boolean enabled) {
+        if (enabled == isUpdateBatchingEnabled()) {
+            return;
+        }
+        flushPendingUpdates();
+        mUpdateBatcher = enabled ? new UpdateBatcher(this) : null;
+        if (mUpdateBatcher != null) {
+            mUpdateBatcher.setListener(mOnUpdateBatchListener);
+        }
+        final RecyclerView.Adapter adapter = getDataAdapter();
+        if (adapter != null) {
+            swapAdapter(adapter, false);
+        }
+    }
+
+    public boolean isUpdateBatchingEnabled() {
+        return mUpdateBatcher != null;
+    }
+
+    public void setOnUpdateBatchListener(final OnUpdateBatchListener listener) {
+        mOnUpdateBatchListener = listener;
+        if (mUpdateBatcher != null) {
+            mUpdateBatcher.setListener(listener);
+        }
+    }
+
+    public long getRawUpdateCount() {
+        return mUpdateBatcher != null ? mUpdateBatcher.getRawUpdateCount() : 0;
+    }
+
+    public long getDispatchedUpdateCount() {
+        return mUpdateBatcher != null ? mUpdateBatcher.getDispatchedUpdateCount() : 0;
+    }
+
+    public void flushPendingUpdates() {
+        if (mUpdateBatcher != null) {
+            mUpdateBatcher.flush();
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * METRICS
+     * **********************************************************************************
+     */
+
+    /**
+     * Records create, bind, layout and decoration timings and the adapter notifications, see
+     * {@link RecyclerAdapterViewMetrics}. The adapter is not replaced : binds are timed by
+     * {@link Adapter}, creates by the header and footer indirection, {@link CompositeAdapter} or
+     * {@link Adapter#inflateItemView(ViewGroup, int)}, so the holders of an adapter creating
+     * its views otherwise are not timed without headers or footers. The item decorations are
+     * timed as a whole, see {@link DecorationTimer}.
+     */
+    public void setMetricsEnabled(final boolean enabled) {
+        if (enabled == (mMetrics != null)) {
+            return;
+        }
+        if (enabled) {
+            mMetrics = new RecyclerAdapterViewMetrics();
+            mDecorationTimer = new DecorationTimer(mMetrics);
+            super.addItemDecoration(mDecorationTimer.mStartMarker, 0);
+            super.addItemDecoration(mDecorationTimer.mEndMarker, -1);
+        } else {
+            super.removeItemDecoration(mDecorationTimer.mStartMarker);
+            super.removeItemDecoration(mDecorationTimer.mEndMarker);
+            mDecorationTimer = null;
+            mMetrics = null;
+        }
+    }
+
+    /**
+     * @return the metrics, or null if they are not enabled
+     */
+    public RecyclerAdapterViewMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /*
+     * **********************************************************************************
+     * EMPTY VIEW
+     * **********************************************************************************
+     */
+
+    private AdapterDataObserver mAdapterDataObserver = new EmptyViewObserver();
 
     public void setEmptyView(final View view) {
         mEmptyView = view;
+        mEmptyState = EMPTY_STATE_UNKNOWN;
         checkIfEmpty();
     }
 
@@ -178,9 +666,31 @@ public class RecyclerAdapterView extends RecyclerView {
         return mEmptyView;
     }
 
+    /**
+     * When set, header and footer views are not counted to decide if the empty view is shown.
+     */
+    public void setEmptyViewIgnoresFixedViews(final boolean ignoreFixedViews) {
+        mEmptyViewIgnoresFixedViews = ignoreFixedViews;
+        checkIfEmpty();
+    }
+
+    public boolean isEmptyViewIgnoringFixedViews() {
+        return mEmptyViewIgnoresFixedViews;
+    }
+
+    private void resetItemCount() {
+        final RecyclerView.Adapter adapter = getAdapter();
+        mItemCount = adapter != null ? adapter.getItemCount() : 0;
+    }
+
     private void checkIfEmpty() {
-        final boolean isViewEmpty = isViewEmpty();
-        if (mEmptyView != null) {
+        if (mEmptyView == null) {
+            return;
+        }
+        final int emptyState = isViewEmpty() ? EMPTY_STATE_EMPTY : EMPTY_STATE_NOT_EMPTY;
+        if (emptyState != mEmptyState) {
+            mEmptyState = emptyState;
+            final boolean isViewEmpty = emptyState == EMPTY_STATE_EMPTY;
             this.setVisibility(isViewEmpty ? INVISIBLE : VISIBLE);
             mEmptyView.setVisibility(isViewEmpty ? VISIBLE : INVISIBLE);
         }
@@ -188,8 +698,11 @@ public class RecyclerAdapterView extends RecyclerView {
 
     private boolean isViewEmpty() {
         if (getAdapter() != null) {
-            final RecyclerView.Adapter adapter = getAdapter();
-            return adapter.getItemCount() == 0 ? true : false;
+            int itemCount = mItemCount;
+            if (mEmptyViewIgnoresFixedViews && mFixedViewAdapter != null) {
+                itemCount -= getHeaderCount() + getFooterCount();
+            }
+            return itemCount <= 0;
         }
         return true;
     }
@@ -220,6 +733,142 @@ public class RecyclerAdapterView extends RecyclerView {
         return mOnItemLongClickListener;
     }
 
+    /*
+     * **********************************************************************************
+     * CHOICE MODE
+     * **********************************************************************************
+     */
+
+    /**
+     * Makes the items checkable by clicking them, as with {@link android.widget.AbsListView}.
+     * Checked items are shown with {@link Checkable#setChecked(boolean)} when the item view is
+     * Checkable, or as activated otherwise.
+     * <p/>
+     * The checked state is kept by position, one bit per item, and follows the range
+     * notifications of the adapter. {@link Adapter#notifyDataSetChanged()} clears it.
+     *
+     * @param choiceMode one of {@link #CHOICE_MODE_NONE}, {@link #CHOICE_MODE_SINGLE} or {@link #CHOICE_MODE_MULTIPLE}
+     */
+    public void setChoiceMode(final int choiceMode) {
+        clearChoices();
+        mChoiceState.setChoiceMode(choiceMode);
+        updateChoiceAdapter();
+    }
+
+    public int getChoiceMode() {
+        return mChoiceState.getChoiceMode();
+    }
+
+    /**
+     * @param position position of the item in the adapter, headers excluded
+     */
+    public void setItemChecked(final int position, final boolean value) {
+        if (mChoiceState.setItemChecked(position, value)) {
+            refreshCheckedStates();
+        }
+    }
+
+    public boolean isItemChecked(final int position) {
+        return mChoiceState.isItemChecked(position);
+    }
+
+    public int getCheckedItemCount() {
+        return mChoiceState.getCheckedItemCount();
+    }
+
+    /**
+     * @return the checked position in {@link #CHOICE_MODE_SINGLE}, or {@link #NO_POSITION}
+     */
+    public int getCheckedItemPosition() {
+        return mChoiceState.getCheckedItemPosition();
+    }
+
+    /**
+     * @return the checked positions, in ascending order
+     */
+    public int[] getCheckedItemPositions() {
+        return mChoiceState.getCheckedItemPositions();
+    }
+
+    /**
+     * @return the ids of the checked items, empty if the adapter has no stable ids
+     */
+    public long[] getCheckedItemIds() {
+        return mChoiceState.getCheckedItemIds();
+    }
+
+    /**
+     * Checks all the items, only in {@link #CHOICE_MODE_MULTIPLE}.
+     */
+    public void checkAll() {
+        mChoiceState.checkAll();
+        refreshCheckedStates();
+    }
+
+    public void clearChoices() {
+        mChoiceState.clear();
+        refreshCheckedStates();
+    }
+
+    /**
+     * Toggles the clicked item in {@link #CHOICE_MODE_MULTIPLE}, checks it in {@link #CHOICE_MODE_SINGLE}.
+     */
+    void performItemChoice(final int position) {
+        if (mChoiceState.performItemChoice(position)) {
+            refreshCheckedStates();
+        }
+    }
+
+    void onItemBound(final RecyclerView.Adapter adapter, final ViewHolder holder, final int position) {
+        if (getChoiceMode() != CHOICE_MODE_NONE && adapter == mChoiceState.getAdapter()) {
+            setViewChecked(holder.itemView, mChoiceState.isItemChecked(position));
+        }
+    }
+
+    private void updateChoiceAdapter() {
+        final RecyclerView.Adapter adapter = getChoiceMode() != CHOICE_MODE_NONE ? getDataAdapter() : null;
+        final RecyclerView.Adapter choiceAdapter = mChoiceState.getAdapter();
+        if (adapter == choiceAdapter) {
+            return;
+        }
+        if (choiceAdapter != null) {
+            choiceAdapter.unregisterAdapterDataObserver(mChoiceState);
+        }
+        mChoiceState.setAdapter(adapter);
+        if (adapter != null) {
+            adapter.registerAdapterDataObserver(mChoiceState);
+        }
+    }
+
+    private void refreshCheckedStates() {
+        if (getChoiceMode() == CHOICE_MODE_NONE) {
+            return;
+        }
+        final int childCount = getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            refreshCheckedState(getChildAt(i));
+        }
+    }
+
+    private void refreshCheckedState(final View child) {
+        if (getChoiceMode() == CHOICE_MODE_NONE) {
+            return;
+        }
+        final int position = getChildAdapterPosition(child);
+        if (position != NO_POSITION && !isFixedView(position)) {
+            setViewChecked(child, mChoiceState.isItemChecked(position - getHeaderCount()));
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    private static void setViewChecked(final View view, final boolean checked) {
+        if (view instanceof Checkable) {
+            ((Checkable) view).setChecked(checked);
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+            view.setActivated(checked);
+        }
+    }
+
     /*
      * **********************************************************************************
      * HEADER AND FOOTER VIEWS
@@ -242,19 +891,30 @@ public class RecyclerAdapterView extends RecyclerView {
         addFixedView(view, mHeaderViews);
     }
 
-    private void addFixedView(final View view, final ArrayList<View> fixedViews) {
-        RecyclerAdapterView.Adapter adapter = (RecyclerAdapterView.Adapter) getAdapter();
-        fixedViews.add(view);
-        if (adapter != null) {
-            setAdapter(adapter);
-            adapter.notifyDataSetChanged();
+    private void addFixedView(final View view, final ArrayList<FixedViewRecyclerAdapter.FixedViewInfo> fixedViews) {
+        fixedViews.add(new FixedViewRecyclerAdapter.FixedViewInfo(view));
+        final RecyclerView.Adapter adapter = getAdapter();
+        if (adapter instanceof FixedViewRecyclerAdapter) {
+            final FixedViewRecyclerAdapter fixedViewAdapter = (FixedViewRecyclerAdapter) adapter;
+            final int index = fixedViews.size() - 1;
+            if (fixedViews == mHeaderViews) {
+                fixedViewAdapter.notifyHeaderViewInserted(index);
+            } else {
+                fixedViewAdapter.notifyFooterViewInserted(index);
+            }
+        } else if (adapter != null) {
+            // First fixed view : wrap the adapter once, keeping the views it already created
+            swapAdapter(adapter, false);
         }
     }
 
     private RecyclerAdapterView.Adapter wrapAdapterIfNeeded(Adapter adapter) {
-        if (!(adapter instanceof FixedViewRecyclerAdapter) && (getHeaderCount() != 0 || getFooterCount() != 0)) {
-            adapter = new FixedViewRecyclerAdapter(mContext, adapter, mHeaderViews, mFooterViews);
-            ((FixedViewRecyclerAdapter) adapter).registerWrapperDataObserver();
+        if (adapter != null && !(adapter instanceof FixedViewRecyclerAdapter)
+                && (getHeaderCount() != 0 || getFooterCount() != 0 || mUpdateBatcher != null)) {
+            final FixedViewRecyclerAdapter fixedViewAdapter = new FixedViewRecyclerAdapter(mContext, adapter, mHeaderViews, mFooterViews);
+            fixedViewAdapter.setUpdateBatcher(mUpdateBatcher);
+            fixedViewAdapter.registerWrapperDataObserver();
+            adapter = fixedViewAdapter;
         }
 
         return adapter;
@@ -268,28 +928,76 @@ public class RecyclerAdapterView extends RecyclerView {
         removeFixedView(view, mHeaderViews);
     }
 
-    private void removeFixedView(final View v, final ArrayList<View> fixedViews) {
-        int size = fixedViews.size();
+    private void removeFixedView(final View v, final ArrayList<FixedViewRecyclerAdapter.FixedViewInfo> fixedViews) {
+        int index = -1;
+        final int size = fixedViews.size();
         for (int i = 0; i < size; ++i) {
-            View view = fixedViews.get(i);
-            if (view == v) {
-                fixedViews.remove(i);
+            if (fixedViews.get(i).view == v) {
+                index = i;
                 break;
             }
         }
-        final RecyclerAdapterView.Adapter adapter = (RecyclerAdapterView.Adapter) getAdapter();
-        if (adapter != null) {
-            adapter.notifyDataSetChanged();
+        if (index < 0) {
+            return;
         }
-    }
-
-    private boolean isFixedView(final int position) {
-        boolean isHeaderView = false;
+        final FixedViewRecyclerAdapter.FixedViewInfo info = fixedViews.remove(index);
+        // The holder showing the view is dropped as well once recycled, see FixedViewRecyclerAdapter
+        releaseViewType(this, info.viewType);
         final RecyclerView.Adapter adapter = getAdapter();
         if (adapter instanceof FixedViewRecyclerAdapter) {
-            isHeaderView = ((FixedViewRecyclerAdapter) adapter).isFixedView(position);
+            final FixedViewRecyclerAdapter fixedViewAdapter = (FixedViewRecyclerAdapter) adapter;
+            if (fixedViews == mHeaderViews) {
+                fixedViewAdapter.notifyHeaderViewRemoved(index);
+            } else {
+                fixedViewAdapter.notifyFooterViewRemoved(index);
+            }
         }
-        return isHeaderView;
+    }
+
+    /**
+     * Drops the pooled holders of a view type nothing uses anymore, like the one of a removed
+     * header or footer view : they would only keep their views alive in the pool.
+     */
+    static void releaseViewType(final RecyclerView recyclerView, final int viewType) {
+        final RecycledViewPool pool = recyclerView.getRecycledViewPool();
+        if (pool instanceof SharedRecycledViewPool) {
+            ((SharedRecycledViewPool) pool).removeViewType(viewType);
+            return;
+        }
+        while (pool.getRecycledView(viewType) != null) {
+            // Dropped
+        }
+    }
+
+    boolean isFixedView(final int position) {
+        return mFixedViewAdapter != null && mFixedViewAdapter.isFixedView(position);
+    }
+
+    /*
+     * **********************************************************************************
+     * ITEM IDS
+     * **********************************************************************************
+     */
+
+    /**
+     * @return the position of the item in the adapter, headers excluded, or {@link #NO_POSITION}
+     * @see Adapter#setItemIdIndexEnabled(boolean)
+     */
+    public int getPositionForItemId(final long id) {
+        final RecyclerView.Adapter adapter = getDataAdapter();
+        if (adapter instanceof RecyclerAdapterView.Adapter) {
+            return ((RecyclerAdapterView.Adapter) adapter).getPositionForItemId(id);
+        }
+        return NO_POSITION;
+    }
+
+    public boolean scrollToItemId(final long id) {
+        final int position = getPositionForItemId(id);
+        if (position == NO_POSITION) {
+            return false;
+        }
+        scrollToPosition(position + getHeaderCount());
+        return true;
     }
 
 
@@ -299,10 +1007,94 @@ public class RecyclerAdapterView extends RecyclerView {
      * **********************************************************************************
      */
 
+    /**
+     * Shows the empty view. Only structural changes can change emptiness, and the count is kept
+     * from the range events.
+     */
+    class EmptyViewObserver extends AdapterDataObserver {
+        @Override
+        public void onChanged() {
+            super.onChanged();
+            if (mMetrics != null) {
+                mMetrics.recordNotification(UPDATE_DATA_SET_CHANGED, 0);
+            }
+            resetItemCount();
+            checkIfEmpty();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            if (mMetrics != null) {
+                mMetrics.recordNotification(UPDATE_CHANGE, itemCount);
+            }
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            super.onItemRangeInserted(positionStart, itemCount);
+            if (mMetrics != null) {
+                mMetrics.recordNotification(UPDATE_INSERT, itemCount);
+            }
+            mItemCount += itemCount;
+            checkIfEmpty();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            super.onItemRangeRemoved(positionStart, itemCount);
+            if (mMetrics != null) {
+                mMetrics.recordNotification(UPDATE_REMOVE, itemCount);
+            }
+            mItemCount -= itemCount;
+            checkIfEmpty();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            if (mMetrics != null) {
+                mMetrics.recordNotification(UPDATE_MOVE, itemCount);
+            }
+        }
+    }
+
+    public interface OnPrefetchListener {
+
+        /**
+         * Called on the scroll path with the items which entered the lookahead window, keep it cheap.
+         */
+        void onPrefetch(int firstPosition, int lastPosition);
+
+        /**
+         * Called with the items which left the lookahead window without becoming visible.
+         */
+        void onPrefetchCancelled(int firstPosition, int lastPosition);
+    }
+
+    public interface OnPrewarmListener {
+
+        /**
+         * @param createdCount number of view holders created and kept by the recycled view pool
+         */
+        void onPrewarmFinished(int createdCount);
+    }
+
+    public interface OnUpdateBatchListener {
+
+        /**
+         * Called for each notification dispatched by the batching mode.
+         *
+         * @param type          one of the UPDATE_* constants
+         * @param rawEventCount number of adapter notifications folded into this one
+         */
+        void onUpdateDispatched(int type, int positionStart, int itemCount, int rawEventCount);
+    }
+
     public static abstract class Adapter<VH extends ViewHolder> extends RecyclerView.Adapter<VH> {
         public abstract Object getItem(int position);
 
         private RecyclerAdapterView mRecyclerAdapterView;
+        private ItemIdIndex mItemIdIndex;
+        private AsyncItemInflater mItemInflater;
 
 
         @Override
@@ -310,6 +1102,207 @@ public class RecyclerAdapterView extends RecyclerView {
 
         }
 
+        /**
+         * Binds a placeholder instead of the full content while the list flings faster than
+         * {@link RecyclerAdapterView#setDeferredBindingVelocity(int)}. The rows are bound again
+         * with {@link #onBindViewHolder(ViewHolder, int)} once the fling ends, or when they are
+         * attached again later. The payloads are ignored, like by RecyclerView : an override
+         * handling them should call through to super for the rows which are not
+         * {@link ViewHolder#isFullyBound() fully bound} and when the payloads are empty, so the
+         * deferred binding and the checked state still apply.
+         */
+        @Override
+        public void onBindViewHolder(VH holder, int position, List<Object> payloads) {
+            final RecyclerAdapterViewMetrics metrics = getOwnMetrics();
+            if (metrics == null) {
+                dispatchBindViewHolder(holder, position, payloads);
+                return;
+            }
+            final long start = System.nanoTime();
+            dispatchBindViewHolder(holder, position, payloads);
+            metrics.recordBind(holder.getItemViewType(), System.nanoTime() - start);
+        }
+
+        /**
+         * Overridden by the adapters forwarding the binding to other adapters, which then decide
+         * for their own rows through their {@link #onBindViewHolder(ViewHolder, int, List)}.
+         */
+        void dispatchBindViewHolder(final VH holder, final int position, final List<Object> payloads) {
+            if (mRecyclerAdapterView != null && mRecyclerAdapterView.isBindingDeferred()
+                    && onBindPlaceholderViewHolder(holder, position)) {
+                holder.mFullyBound = false;
+            } else {
+                holder.mFullyBound = true;
+                onBindViewHolder(holder, position);
+            }
+            onItemBound(holder, position);
+        }
+
+        /**
+         * @return the metrics of the RecyclerAdapterView if this adapter is the one set on it :
+         * only that adapter times, the adapters it forwards to are included
+         */
+        RecyclerAdapterViewMetrics getOwnMetrics() {
+            return mRecyclerAdapterView != null && mRecyclerAdapterView.getAdapter() == this
+                    ? mRecyclerAdapterView.mMetrics : null;
+        }
+
+        /**
+         * Applies the checked state of the choice mode to the bound row, if this adapter is the
+         * one of the RecyclerAdapterView.
+         */
+        void onItemBound(final ViewHolder holder, final int position) {
+            if (mRecyclerAdapterView != null) {
+                mRecyclerAdapterView.onItemBound(this, holder, position);
+            }
+        }
+
+        /**
+         * Binds the cheap part of the row during a fast fling, leaving out the expensive work
+         * like image requests or text formatting.
+         *
+         * @return true if a placeholder was bound, false to bind the full content now
+         */
+        protected boolean onBindPlaceholderViewHolder(final VH holder, final int position) {
+            return false;
+        }
+
+        /**
+         * @return the scroll velocity of the attached RecyclerAdapterView, in pixels per second
+         */
+        protected int getScrollVelocity() {
+            return mRecyclerAdapterView != null ? mRecyclerAdapterView.getScrollVelocity() : 0;
+        }
+
+        protected int getScrollState() {
+            return mRecyclerAdapterView != null ? mRecyclerAdapterView.getScrollState() : SCROLL_STATE_IDLE;
+        }
+
+        /**
+         * @return true if the item is checked in the choice mode of the attached RecyclerAdapterView
+         * @see RecyclerAdapterView#setChoiceMode(int)
+         */
+        protected boolean isItemChecked(final int position) {
+            return mRecyclerAdapterView != null && mRecyclerAdapterView.mChoiceState.getAdapter() == this
+                    && mRecyclerAdapterView.isItemChecked(position);
+        }
+
+        @SuppressWarnings("unchecked")
+        void bindDeferredViewHolder(final ViewHolder holder, final int position) {
+            holder.mFullyBound = true;
+            onBindViewHolder((VH) holder, position);
+        }
+
+        /**
+         * Keeps an index of the stable ids, updated from the adapter notifications, making
+         * {@link #getPositionForItemId(long)} a constant time lookup.
+         */
+        public void setItemIdIndexEnabled(final boolean enabled) {
+            if (enabled && mItemIdIndex == null) {
+                if (!hasStableIds()) {
+                    throw new IllegalStateException("The item id index requires an adapter with stable ids");
+                }
+                mItemIdIndex = new ItemIdIndex(this);
+                registerAdapterDataObserver(mItemIdIndex);
+            } else if (!enabled && mItemIdIndex != null) {
+                unregisterAdapterDataObserver(mItemIdIndex);
+                mItemIdIndex = null;
+            }
+        }
+
+        public boolean isItemIdIndexEnabled() {
+            return mItemIdIndex != null;
+        }
+
+        public int getPositionForItemId(final long id) {
+            if (mItemIdIndex != null) {
+                return mItemIdIndex.getPosition(id);
+            }
+            final int itemCount = getItemCount();
+            for (int i = 0; i < itemCount; i++) {
+                if (getItemId(i) == id) {
+                    return i;
+                }
+            }
+            return NO_POSITION;
+        }
+
+        /**
+         * Layout of the item views of the given type, used by {@link #inflateItemView(ViewGroup, int)}
+         * and {@link #inflateItemViewsAsync(ViewGroup, int, int)}.
+         *
+         * @return a layout resource id, or 0 if the views of this type are not inflated from a layout
+         */
+        protected int getItemLayoutId(final int viewType) {
+            return 0;
+        }
+
+        /**
+         * Inflates {@code count} item views of the given type on a worker thread, ahead of the
+         * {@link #onCreateViewHolder(ViewGroup, int)} calls that will need them.
+         *
+         * @param parent the view the items will be attached to, usually the RecyclerAdapterView
+         */
+        public void inflateItemViewsAsync(final ViewGroup parent, final int viewType, final int count) {
+            final int layoutId = getItemLayoutId(viewType);
+            if (layoutId == 0) {
+                throw new IllegalStateException("No item layout for the view type " + viewType);
+            }
+            if (mItemInflater == null) {
+                mItemInflater = new AsyncItemInflater();
+            }
+            mItemInflater.inflateAsync(parent, layoutId, viewType, count);
+        }
+
+        /**
+         * To be called from {@link #onCreateViewHolder(ViewGroup, int)} : returns an item view
+         * inflated in the background if one is ready, otherwise inflates it on the calling thread.
+         */
+        protected View inflateItemView(final ViewGroup parent, final int viewType) {
+            final int layoutId = getItemLayoutId(viewType);
+            if (layoutId == 0) {
+                throw new IllegalStateException("No item layout for the view type " + viewType);
+            }
+            if (mItemInflater == null) {
+                mItemInflater = new AsyncItemInflater();
+            }
+            // Timed as the creation of the holder when the adapter is the one of the view
+            final RecyclerAdapterViewMetrics metrics = getOwnMetrics();
+            if (metrics == null) {
+                return mItemInflater.obtain(parent, layoutId, viewType);
+            }
+            final long start = System.nanoTime();
+            final View view = mItemInflater.obtain(parent, layoutId, viewType);
+            metrics.recordCreate(viewType, System.nanoTime() - start);
+            return view;
+        }
+
+        public int getReadyItemViewCount(final int viewType) {
+            return mItemInflater != null ? mItemInflater.getReadyCount(viewType) : 0;
+        }
+
+        /**
+         * @return the number of {@link #inflateItemView(ViewGroup, int)} calls served by a view
+         * inflated in the background
+         */
+        public int getInflationHitCount() {
+            return mItemInflater != null ? mItemInflater.getHitCount() : 0;
+        }
+
+        /**
+         * @return the number of {@link #inflateItemView(ViewGroup, int)} calls that had to inflate
+         * on the calling thread
+         */
+        public int getInflationMissCount() {
+            return mItemInflater != null ? mItemInflater.getMissCount() : 0;
+        }
+
+        public void resetInflationCounts() {
+            if (mItemInflater != null) {
+                mItemInflater.resetCounts();
+            }
+        }
+
         @Override
         public void onAttachedToRecyclerView(RecyclerView recyclerView) {
             super.onAttachedToRecyclerView(recyclerView);
@@ -326,53 +1319,51 @@ public class RecyclerAdapterView extends RecyclerView {
             }
         }
 
-        @Override
-        public void onViewAttachedToWindow(VH holder) {
-            super.onViewAttachedToWindow(holder);
-            holder.mRecyclerAdapterView = mRecyclerAdapterView;
+        RecyclerAdapterView getRecyclerAdapterView() {
+            return mRecyclerAdapterView;
         }
 
-        @Override
-        public void onViewDetachedFromWindow(VH holder) {
-            super.onViewDetachedFromWindow(holder);
-            holder.mRecyclerAdapterView = null;
+        /**
+         * Inflates the item views with {@code itemInflater} instead of a default one.
+         */
+        void setItemInflater(final AsyncItemInflater itemInflater) {
+            mItemInflater = itemInflater;
+        }
+
+        /**
+         * Called when the RecyclerAdapterView replaced this adapter with another one.
+         */
+        void clearInflatedItemViews() {
+            if (mItemInflater != null) {
+                mItemInflater.clear();
+            }
         }
     }
 
     public static class ViewHolder extends RecyclerView.ViewHolder {
 
-        RecyclerAdapterView mRecyclerAdapterView;
+        boolean mFullyBound = true;
 
         public ViewHolder(final View itemView) {
+            this(itemView, true);
+        }
+
+        /**
+         * @param itemEvents false for the header and footer views, which are not items
+         */
+        ViewHolder(final View itemView, final boolean itemEvents) {
             super(itemView);
-            if (itemView != null) {
-                itemView.setOnClickListener(new OnClickListener() {
-                    @Override
-                    public void onClick(View view) {
-                        final long id = getItemId();
-                        int position = getAdapterPosition();
-
-                        if (mRecyclerAdapterView != null && mRecyclerAdapterView.getOnItemClickListener() != null && !mRecyclerAdapterView.isFixedView(position)) {
-                            position -= mRecyclerAdapterView.getHeaderCount();
-                            mRecyclerAdapterView.getOnItemClickListener().onItemClick(null, view, position, id);
-                        }
-                    }
-                });
-
-                itemView.setOnLongClickListener(new OnLongClickListener() {
-                    @Override
-                    public boolean onLongClick(View view) {
-                        final long id = getItemId();
-                        int position = getAdapterPosition();
-
-                        if (mRecyclerAdapterView != null && mRecyclerAdapterView.getOnItemLongClickListener() != null && !mRecyclerAdapterView.isFixedView(position)) {
-                            position -= mRecyclerAdapterView.getHeaderCount();
-                            mRecyclerAdapterView.getOnItemLongClickListener().onItemLongClick(null, view, position, id);
-                        }
-                        return true;
-                    }
-                });
+            if (itemView != null && itemEvents) {
+                itemView.setOnClickListener(ItemEventDispatcher.INSTANCE);
+                itemView.setOnLongClickListener(ItemEventDispatcher.INSTANCE);
             }
         }
+
+        /**
+         * @return false if only a placeholder has been bound during a fling
+         */
+        public boolean isFullyBound() {
+            return mFullyBound;
+        }
     }
 }
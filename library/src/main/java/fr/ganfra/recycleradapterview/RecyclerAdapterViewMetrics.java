@@ -0,0 +1,296 @@
+package fr.ganfra.recycleradapterview;
+
+import android.util.SparseArray;
+
+import java.util.Arrays;
+
+/**
+ * Timings of a {@link RecyclerAdapterView}, enabled with
+ * {@link RecyclerAdapterView#setMetricsEnabled(boolean)} :
+ * <ul>
+ * <li>create and bind durations per view type, as log2 histograms ;</li>
+ * <li>decoration drawing and layout durations ;</li>
+ * <li>adapter notifications received by the RecyclerView, per update type ;</li>
+ * <li>frames whose work exceeded the budget, reported to a {@link Listener} with the
+ * operations that ran in them.</li>
+ * </ul>
+ * Header and footer views are created and bound by the header and footer indirection, under
+ * view types for which {@link #isFixedViewType(int)} is true.
+ * <p/>
+ * Recording does not allocate, except the histograms of a view type the first time it is seen.
+ * Must only be used from the main thread.
+ */
+public final class RecyclerAdapterViewMetrics {
+
+    /*
+     * **********************************************************************************
+     * CONSTANTS
+     * **********************************************************************************
+     */
+
+    public static final int OP_CREATE = 1;
+    public static final int OP_BIND = 1 << 1;
+    public static final int OP_DECORATION = 1 << 2;
+    public static final int OP_LAYOUT = 1 << 3;
+    public static final int OP_NOTIFY = 1 << 4;
+
+    /**
+     * Histograms have one bucket per power of two : the bucket {@code i} counts the
+     * durations in [2^i, 2^(i+1)) nanoseconds.
+     */
+    public static final int BUCKET_COUNT = 64;
+
+    private static final long DEFAULT_FRAME_BUDGET_NANOS = 16666667L;
+    private static final int UPDATE_TYPE_COUNT = 5;
+
+    /*
+     * **********************************************************************************
+     * ATTRIBUTES
+     * **********************************************************************************
+     */
+
+    private final SparseArray<long[]> mCreateHistograms = new SparseArray<>();
+    private final SparseArray<long[]> mBindHistograms = new SparseArray<>();
+    private final long[] mDecorationHistogram = new long[BUCKET_COUNT];
+    private final long[] mLayoutHistogram = new long[BUCKET_COUNT];
+    private final long[] mNotificationCounts = new long[UPDATE_TYPE_COUNT];
+    private final long[] mNotifiedItemCounts = new long[UPDATE_TYPE_COUNT];
+
+    private Listener mListener;
+    private long mFrameBudgetNanos = DEFAULT_FRAME_BUDGET_NANOS;
+    private long mSlowFrameCount;
+    private long mFrameCount;
+
+    // Current frame
+    private boolean mInLayout;
+    private int mFrameOperations;
+    private long mFrameCreateNanos;
+    private long mFrameBindNanos;
+    private long mFrameDecorationNanos;
+    private long mFrameOutOfLayoutNanos;
+    private long mFrameLayoutNanos;
+
+    RecyclerAdapterViewMetrics() {
+    }
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    public void setListener(final Listener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Work time above which a frame is reported to the listener, 16.6ms by default.
+     */
+    public void setFrameBudgetNanos(final long frameBudgetNanos) {
+        mFrameBudgetNanos = frameBudgetNanos;
+    }
+
+    /**
+     * @return the view types created or bound so far
+     */
+    public int[] getViewTypes() {
+        final int[] viewTypes = new int[mBindHistograms.size() + mCreateHistograms.size()];
+        int count = 0;
+        for (int i = 0; i < mCreateHistograms.size(); i++) {
+            viewTypes[count++] = mCreateHistograms.keyAt(i);
+        }
+        for (int i = 0; i < mBindHistograms.size(); i++) {
+            if (mCreateHistograms.indexOfKey(mBindHistograms.keyAt(i)) < 0) {
+                viewTypes[count++] = mBindHistograms.keyAt(i);
+            }
+        }
+        return Arrays.copyOf(viewTypes, count);
+    }
+
+    /**
+     * @return a copy of the create duration histogram of the view type, see {@link #BUCKET_COUNT}
+     */
+    public long[] getCreateHistogram(final int viewType) {
+        return copyOf(mCreateHistograms.get(viewType));
+    }
+
+    /**
+     * @return a copy of the bind duration histogram of the view type, see {@link #BUCKET_COUNT}
+     */
+    public long[] getBindHistogram(final int viewType) {
+        return copyOf(mBindHistograms.get(viewType));
+    }
+
+    /**
+     * @return a copy of the histogram of the item decoration drawing durations, per frame
+     */
+    public long[] getDecorationHistogram() {
+        return copyOf(mDecorationHistogram);
+    }
+
+    public long[] getLayoutHistogram() {
+        return copyOf(mLayoutHistogram);
+    }
+
+    /**
+     * @param updateType one of the {@code RecyclerAdapterView.UPDATE_*} constants
+     * @return the number of notifications of this type received by the RecyclerView
+     */
+    public long getNotificationCount(final int updateType) {
+        return mNotificationCounts[updateType];
+    }
+
+    /**
+     * @return the number of items affected by the notifications of this type
+     */
+    public long getNotifiedItemCount(final int updateType) {
+        return mNotifiedItemCounts[updateType];
+    }
+
+    public long getFrameCount() {
+        return mFrameCount;
+    }
+
+    public long getSlowFrameCount() {
+        return mSlowFrameCount;
+    }
+
+    public void reset() {
+        mCreateHistograms.clear();
+        mBindHistograms.clear();
+        Arrays.fill(mDecorationHistogram, 0);
+        Arrays.fill(mLayoutHistogram, 0);
+        Arrays.fill(mNotificationCounts, 0);
+        Arrays.fill(mNotifiedItemCounts, 0);
+        mFrameCount = 0;
+        mSlowFrameCount = 0;
+        resetFrame();
+    }
+
+    public static boolean isFixedViewType(final int viewType) {
+        return FixedViewRecyclerAdapter.isFixedViewType(viewType);
+    }
+
+    /**
+     * @return the lower bound in nanoseconds of the durations counted in the bucket
+     */
+    public static long getBucketStartNanos(final int bucket) {
+        return 1L << bucket;
+    }
+
+    /*
+     * **********************************************************************************
+     * RECORDING
+     * **********************************************************************************
+     */
+
+    void recordCreate(final int viewType, final long nanos) {
+        record(mCreateHistograms, viewType, nanos);
+        mFrameOperations |= OP_CREATE;
+        mFrameCreateNanos += nanos;
+        if (!mInLayout) {
+            mFrameOutOfLayoutNanos += nanos;
+        }
+    }
+
+    void recordBind(final int viewType, final long nanos) {
+        record(mBindHistograms, viewType, nanos);
+        mFrameOperations |= OP_BIND;
+        mFrameBindNanos += nanos;
+        if (!mInLayout) {
+            mFrameOutOfLayoutNanos += nanos;
+        }
+    }
+
+    void recordDecoration(final long nanos) {
+        mFrameOperations |= OP_DECORATION;
+        mFrameDecorationNanos += nanos;
+    }
+
+    void recordNotification(final int updateType, final int itemCount) {
+        mNotificationCounts[updateType]++;
+        mNotifiedItemCounts[updateType] += itemCount;
+        mFrameOperations |= OP_NOTIFY;
+    }
+
+    void onLayoutStarted() {
+        mInLayout = true;
+    }
+
+    void onLayoutFinished(final long nanos) {
+        mInLayout = false;
+        mLayoutHistogram[bucketOf(nanos)]++;
+        mFrameOperations |= OP_LAYOUT;
+        mFrameLayoutNanos += nanos;
+    }
+
+    /**
+     * Ends the current frame.
+     *
+     * @param drawNanos time spent drawing the RecyclerView, the item decorations included
+     */
+    void onFrameDrawn(final long drawNanos) {
+        final long decorationNanos = mFrameDecorationNanos;
+        mDecorationHistogram[bucketOf(decorationNanos)]++;
+        mFrameCount++;
+        final long workNanos = mFrameLayoutNanos + mFrameOutOfLayoutNanos + drawNanos;
+        if (workNanos > mFrameBudgetNanos) {
+            mSlowFrameCount++;
+            if (mListener != null) {
+                mListener.onSlowFrame(workNanos, mFrameOperations, mFrameCreateNanos, mFrameBindNanos,
+                        decorationNanos, mFrameLayoutNanos);
+            }
+        }
+        resetFrame();
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private void resetFrame() {
+        mFrameOperations = 0;
+        mFrameCreateNanos = 0;
+        mFrameBindNanos = 0;
+        mFrameDecorationNanos = 0;
+        mFrameOutOfLayoutNanos = 0;
+        mFrameLayoutNanos = 0;
+    }
+
+    private static void record(final SparseArray<long[]> histograms, final int viewType, final long nanos) {
+        long[] histogram = histograms.get(viewType);
+        if (histogram == null) {
+            histogram = new long[BUCKET_COUNT];
+            histograms.put(viewType, histogram);
+        }
+        histogram[bucketOf(nanos)]++;
+    }
+
+    private static int bucketOf(final long nanos) {
+        return nanos <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    private static long[] copyOf(final long[] histogram) {
+        return histogram != null ? Arrays.copyOf(histogram, BUCKET_COUNT) : new long[BUCKET_COUNT];
+    }
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    public interface Listener {
+
+        /**
+         * Called when the work of a frame exceeded the budget. Create and bind times are
+         * included in the layout time when they happened during a layout.
+         *
+         * @param operations the OP_* flags of the operations that ran in the frame
+         */
+        void onSlowFrame(long workNanos, int operations, long createNanos, long bindNanos,
+                         long decorationNanos, long layoutNanos);
+    }
+}
@@ -0,0 +1,176 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+
+import java.util.Arrays;
+
+/**
+ * First positions of the sections of a {@link SectionedAdapter}, kept up to date from the
+ * adapter's own range notifications.
+ * <p/>
+ * The starts are a sorted int array built on the first query. An insertion or a removal shifts
+ * the following starts and only re-examines the section boundaries around the changed range, a
+ * move or a data set change drops the index until the next query.
+ */
+class SectionIndex extends RecyclerView.AdapterDataObserver {
+
+    private final SectionedAdapter<?> mAdapter;
+    private int[] mSectionStarts = new int[16];
+    private int mSectionCount;
+    private boolean mValid;
+    private Object[] mSections;
+
+    SectionIndex(final SectionedAdapter<?> adapter) {
+        mAdapter = adapter;
+    }
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    int getSectionCount() {
+        ensureValid();
+        return mSectionCount;
+    }
+
+    /**
+     * @return the first position of the section, which must be in [0, {@link #getSectionCount()})
+     */
+    int getSectionStart(final int section) {
+        ensureValid();
+        return mSectionStarts[section];
+    }
+
+    /**
+     * @return the labels of the sections, cached until the index changes
+     */
+    Object[] getSections() {
+        ensureValid();
+        if (mSections == null) {
+            mSections = new Object[mSectionCount];
+            for (int i = 0; i < mSectionCount; i++) {
+                mSections[i] = mAdapter.getSectionLabel(mSectionStarts[i]);
+            }
+        }
+        return mSections;
+    }
+
+    int getSectionForPosition(final int position) {
+        ensureValid();
+        final int index = Arrays.binarySearch(mSectionStarts, 0, mSectionCount, position);
+        return index >= 0 ? index : Math.max(0, -index - 2);
+    }
+
+    boolean isSectionStart(final int position) {
+        ensureValid();
+        return Arrays.binarySearch(mSectionStarts, 0, mSectionCount, position) >= 0;
+    }
+
+    void invalidate() {
+        mValid = false;
+    }
+
+    @Override
+    public void onChanged() {
+        mValid = false;
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+        update(0, 0, 0, positionStart, positionStart + itemCount);
+    }
+
+    @Override
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        // Starts from positionStart on move with their item, the item after the inserted range gets a new predecessor
+        update(positionStart, positionStart, itemCount, positionStart, positionStart + itemCount);
+    }
+
+    @Override
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        update(positionStart, positionStart + itemCount, -itemCount, positionStart, positionStart);
+    }
+
+    @Override
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        mValid = false;
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private void ensureValid() {
+        if (mValid) {
+            return;
+        }
+        mSectionCount = 0;
+        mSections = null;
+        final int itemCount = mAdapter.getItemCount();
+        for (int i = 0; i < itemCount; i++) {
+            if (isBoundary(i)) {
+                insertStart(mSectionCount, i);
+            }
+        }
+        mValid = true;
+    }
+
+    private boolean isBoundary(final int position) {
+        return position == 0 || mAdapter.getSectionKey(position) != mAdapter.getSectionKey(position - 1);
+    }
+
+    /**
+     * Removes the section starts in [{@code from}, {@code to}), shifts the following ones by
+     * {@code shift} then re-examines the positions in [{@code checkFrom}, {@code checkTo}].
+     */
+    private void update(final int from, final int to, final int shift, final int checkFrom, final int checkTo) {
+        if (!mValid) {
+            return;
+        }
+        mSections = null;
+        final int first = lowerBound(from);
+        final int last = lowerBound(to);
+        System.arraycopy(mSectionStarts, last, mSectionStarts, first, mSectionCount - last);
+        mSectionCount -= last - first;
+        for (int i = first; i < mSectionCount; i++) {
+            mSectionStarts[i] += shift;
+        }
+
+        final int itemCount = mAdapter.getItemCount();
+        final int end = Math.min(checkTo, itemCount - 1);
+        int index = lowerBound(checkFrom);
+        for (int position = checkFrom; position <= end; position++) {
+            final boolean start = index < mSectionCount && mSectionStarts[index] == position;
+            final boolean boundary = isBoundary(position);
+            if (start && !boundary) {
+                System.arraycopy(mSectionStarts, index + 1, mSectionStarts, index, mSectionCount - index - 1);
+                mSectionCount--;
+            } else if (!start && boundary) {
+                insertStart(index++, position);
+            } else if (start) {
+                index++;
+            }
+        }
+    }
+
+    private void insertStart(final int index, final int position) {
+        if (mSectionCount == mSectionStarts.length) {
+            mSectionStarts = Arrays.copyOf(mSectionStarts, mSectionCount * 2);
+        }
+        System.arraycopy(mSectionStarts, index, mSectionStarts, index + 1, mSectionCount - index);
+        mSectionStarts[index] = position;
+        mSectionCount++;
+    }
+
+    /**
+     * @return the index of the first section starting at or after {@code position}
+     */
+    private int lowerBound(final int position) {
+        final int index = Arrays.binarySearch(mSectionStarts, 0, mSectionCount, position);
+        return index >= 0 ? index : -index - 1;
+    }
+}
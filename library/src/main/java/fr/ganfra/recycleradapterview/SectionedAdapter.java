@@ -0,0 +1,104 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+import android.widget.SectionIndexer;
+
+/**
+ * Adapter whose items are grouped in sections of consecutive items sharing the same
+ * {@link #getSectionKey(int) section key}, for fast scrolling and sticky headers.
+ * <p/>
+ * The first position of each section is kept in a sorted int array, built on the first query
+ * and then updated from the adapter's own range notifications : an insertion or a removal only
+ * re-examines the section boundaries around the changed range, see {@link SectionIndex}.
+ * Section lookups are binary searches in that array.
+ * <p/>
+ * The index only observes the adapter while it is built, from the first query until the adapter
+ * is detached from its RecyclerView, so {@link #setHasStableIds(boolean)} can still be called
+ * before.
+ */
+public abstract class SectionedAdapter<VH extends RecyclerAdapterView.ViewHolder> extends RecyclerAdapterView.Adapter<VH> implements SectionIndexer {
+
+    private final SectionIndex mSectionIndex = new SectionIndex(this);
+    private boolean mObserverRegistered;
+
+    /*
+     * **********************************************************************************
+     * ABSTRACT METHODS
+     * **********************************************************************************
+     */
+
+    /**
+     * @return a key identifying the section of the item, consecutive items with the same key belong to the same section
+     */
+    protected abstract long getSectionKey(int position);
+
+    /**
+     * @return the label of the section starting at {@code position}, returned by {@link #getSections()}
+     */
+    protected abstract Object getSectionLabel(int position);
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    public int getSectionCount() {
+        ensureObserved();
+        return mSectionIndex.getSectionCount();
+    }
+
+    @Override
+    public Object[] getSections() {
+        ensureObserved();
+        return mSectionIndex.getSections();
+    }
+
+    @Override
+    public int getPositionForSection(int section) {
+        ensureObserved();
+        final int sectionCount = mSectionIndex.getSectionCount();
+        if (sectionCount == 0) {
+            return RecyclerView.NO_POSITION;
+        }
+        return mSectionIndex.getSectionStart(Math.max(0, Math.min(section, sectionCount - 1)));
+    }
+
+    @Override
+    public int getSectionForPosition(int position) {
+        ensureObserved();
+        return mSectionIndex.getSectionForPosition(position);
+    }
+
+    public boolean isSectionStart(final int position) {
+        ensureObserved();
+        return mSectionIndex.isSectionStart(position);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        // Without the notifications the index can't be kept up to date, it is built again on the next query
+        if (mObserverRegistered) {
+            unregisterAdapterDataObserver(mSectionIndex);
+            mObserverRegistered = false;
+        }
+        mSectionIndex.invalidate();
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    /**
+     * Registers the index before it is built, so it gets every change made from then on.
+     */
+    private void ensureObserved() {
+        if (!mObserverRegistered) {
+            registerAdapterDataObserver(mSectionIndex);
+            mObserverRegistered = true;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseBooleanArray;
+import android.util.SparseIntArray;
+
+/**
+ * Recycled view pool meant to be shared by several {@link RecyclerAdapterView}s showing the
+ * same item types, for example the pages of a ViewPager, with a capacity per view type.
+ * <p/>
+ * Header and footer views get their own view type each, so their holders can't be reused by
+ * another list : they are limited to {@link #setFixedViewCapacity(int) a small capacity}
+ * instead of the default one.
+ * <p/>
+ * Must only be used from the main thread.
+ */
+public class SharedRecycledViewPool extends RecyclerView.RecycledViewPool {
+
+    private static final int DEFAULT_CAPACITY = 5;
+    private static final int DEFAULT_FIXED_VIEW_CAPACITY = 1;
+
+    private final SparseIntArray mCapacities = new SparseIntArray();
+    private final SparseIntArray mCounts = new SparseIntArray();
+    // Types with a capacity of 0, kept out of mCapacities
+    private final SparseBooleanArray mDisabledTypes = new SparseBooleanArray();
+    private int mDefaultCapacity = DEFAULT_CAPACITY;
+    private int mFixedViewCapacity = DEFAULT_FIXED_VIEW_CAPACITY;
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    /**
+     * Sets the maximum number of pooled holders of a view type, dropping the pooled holders above it.
+     * A capacity of 0 stops pooling the type and forgets it : it is left out of
+     * {@link #getCapacities()} until it gets a capacity again.
+     */
+    public void setCapacity(final int viewType, final int capacity) {
+        setMaxRecycledViews(viewType, capacity);
+    }
+
+    /**
+     * @return the capacity of the view type, or the default one if it has not been set
+     */
+    public int getCapacity(final int viewType) {
+        if (mDisabledTypes.get(viewType)) {
+            return 0;
+        }
+        return mCapacities.get(viewType, getDefaultCapacity(viewType));
+    }
+
+    /**
+     * Capacity of the item view types without an explicit capacity, 5 by default.
+     */
+    public void setDefaultCapacity(final int defaultCapacity) {
+        mDefaultCapacity = defaultCapacity;
+    }
+
+    /**
+     * Capacity of each header and footer view type, 1 by default.
+     */
+    public void setFixedViewCapacity(final int fixedViewCapacity) {
+        mFixedViewCapacity = fixedViewCapacity;
+    }
+
+    /**
+     * @return the number of holders of this type currently in the pool
+     */
+    public int getRecycledViewCount(final int viewType) {
+        return mCounts.get(viewType);
+    }
+
+    /**
+     * @return a copy of the capacities of the view types seen so far
+     */
+    SparseIntArray getCapacities() {
+        final SparseIntArray capacities = new SparseIntArray(mCapacities.size());
+        for (int i = 0; i < mCapacities.size(); i++) {
+            capacities.put(mCapacities.keyAt(i), mCapacities.valueAt(i));
+        }
+        return capacities;
+    }
+
+    /**
+     * Drops the pooled holders of a view type that won't be used again, like the one of a removed
+     * header view, and forgets the type.
+     */
+    void removeViewType(final int viewType) {
+        while (super.getRecycledView(viewType) != null) {
+            // Dropped
+        }
+        mCapacities.delete(viewType);
+        mCounts.delete(viewType);
+    }
+
+    @Override
+    public void setMaxRecycledViews(int viewType, int max) {
+        if (max == 0) {
+            mCapacities.delete(viewType);
+            mCounts.delete(viewType);
+            mDisabledTypes.put(viewType, true);
+        } else {
+            mCapacities.put(viewType, max);
+            if (mCounts.get(viewType) > max) {
+                mCounts.put(viewType, max);
+            }
+            mDisabledTypes.delete(viewType);
+        }
+        super.setMaxRecycledViews(viewType, max);
+    }
+
+    @Override
+    public RecyclerView.ViewHolder getRecycledView(int viewType) {
+        final RecyclerView.ViewHolder holder = super.getRecycledView(viewType);
+        if (holder != null) {
+            mCounts.put(viewType, mCounts.get(viewType) - 1);
+        }
+        return holder;
+    }
+
+    @Override
+    public void putRecycledView(RecyclerView.ViewHolder scrap) {
+        final int viewType = scrap.getItemViewType();
+        if (mDisabledTypes.get(viewType)) {
+            return;
+        }
+        if (mCapacities.indexOfKey(viewType) < 0) {
+            // The super class allows 5 holders of a type it has never seen
+            setMaxRecycledViews(viewType, getDefaultCapacity(viewType));
+        }
+        final int count = mCounts.get(viewType);
+        if (count < mCapacities.get(viewType)) {
+            mCounts.put(viewType, count + 1);
+        }
+        super.putRecycledView(scrap);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        mCounts.clear();
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private int getDefaultCapacity(final int viewType) {
+        return FixedViewRecyclerAdapter.isFixedViewType(viewType) ? mFixedViewCapacity : mDefaultCapacity;
+    }
+}
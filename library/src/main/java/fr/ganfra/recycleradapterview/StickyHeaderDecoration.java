@@ -0,0 +1,192 @@
+package fr.ganfra.recycleradapterview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.support.v4.util.LruCache;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Pins the header of the current section of a {@link SectionedAdapter} at the top of the list,
+ * pushed up by the first row of the next section.
+ * <p/>
+ * Each header is bound and measured once and then drawn into a bitmap, so scrolling only draws
+ * cached bitmaps. The bitmaps are kept by section key in a LRU cache limited to a number of
+ * bytes. Call {@link #invalidateHeaders()} when the content of the headers changes.
+ */
+public class StickyHeaderDecoration extends RecyclerView.ItemDecoration {
+
+    private final SectionedAdapter mAdapter;
+    private final HeaderBinder mHeaderBinder;
+    private final LruCache<Long, Bitmap> mHeaderCache;
+
+    private View mHeaderView;
+    private long mCurrentKey;
+    private Bitmap mCurrentHeader;
+    private int mHeaderWidth;
+
+    /*
+     * **********************************************************************************
+     * CONSTRUCTORS
+     * **********************************************************************************
+     */
+
+    /**
+     * @param maxCacheBytes maximum size of the cached header bitmaps
+     */
+    public StickyHeaderDecoration(final SectionedAdapter adapter, final HeaderBinder headerBinder, final int maxCacheBytes) {
+        mAdapter = adapter;
+        mHeaderBinder = headerBinder;
+        mHeaderCache = new LruCache<Long, Bitmap>(maxCacheBytes) {
+            @Override
+            protected int sizeOf(Long key, Bitmap value) {
+                return value.getRowBytes() * value.getHeight();
+            }
+        };
+    }
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    /**
+     * Drops the cached headers, they are rendered again the next time they are drawn.
+     */
+    public void invalidateHeaders() {
+        mHeaderCache.evictAll();
+        mCurrentHeader = null;
+    }
+
+    @Override
+    public void onDrawOver(Canvas c, RecyclerView parent, RecyclerView.State state) {
+        final int width = parent.getWidth() - parent.getPaddingLeft() - parent.getPaddingRight();
+        if (width != mHeaderWidth) {
+            // The headers are rendered at the width of the list
+            invalidateHeaders();
+            mHeaderWidth = width;
+        }
+        final int top = parent.getPaddingTop();
+        final View firstChild = findFirstDataChild(parent, top);
+        if (firstChild == null) {
+            return;
+        }
+        final int position = getDataPosition(parent, firstChild);
+        final int section = mAdapter.getSectionForPosition(position);
+        final Bitmap header = getHeader(parent, mAdapter.getPositionForSection(section), section);
+        if (header == null) {
+            return;
+        }
+
+        int offset = 0;
+        if (section + 1 < mAdapter.getSectionCount()) {
+            final RecyclerView.ViewHolder next = parent.findViewHolderForAdapterPosition(
+                    mAdapter.getPositionForSection(section + 1) + getHeaderCount(parent));
+            if (next != null) {
+                final int nextTop = next.itemView.getTop();
+                if (nextTop < top + header.getHeight()) {
+                    offset = Math.max(nextTop - top - header.getHeight(), -header.getHeight());
+                }
+            }
+        }
+        c.drawBitmap(header, parent.getPaddingLeft(), top + offset, null);
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private Bitmap getHeader(final RecyclerView parent, final int sectionStart, final int section) {
+        final long key = mAdapter.getSectionKey(sectionStart);
+        if (mCurrentHeader != null && key == mCurrentKey) {
+            return mCurrentHeader;
+        }
+        Bitmap header = mHeaderCache.get(key);
+        if (header == null) {
+            header = renderHeader(parent, section);
+            if (header == null) {
+                return null;
+            }
+            mHeaderCache.put(key, header);
+        }
+        mCurrentKey = key;
+        mCurrentHeader = header;
+        return header;
+    }
+
+    private Bitmap renderHeader(final RecyclerView parent, final int section) {
+        mHeaderView = mHeaderBinder.getHeaderView(section, mHeaderView, parent);
+        final int width = parent.getWidth() - parent.getPaddingLeft() - parent.getPaddingRight();
+        if (width <= 0) {
+            return null;
+        }
+        if (mHeaderView.getLayoutParams() == null) {
+            mHeaderView.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        }
+        final int heightSpec = mHeaderView.getLayoutParams().height >= 0
+                ? View.MeasureSpec.makeMeasureSpec(mHeaderView.getLayoutParams().height, View.MeasureSpec.EXACTLY)
+                : View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        mHeaderView.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY), heightSpec);
+        mHeaderView.layout(0, 0, mHeaderView.getMeasuredWidth(), mHeaderView.getMeasuredHeight());
+        if (mHeaderView.getMeasuredHeight() <= 0) {
+            return null;
+        }
+        final Bitmap bitmap = Bitmap.createBitmap(mHeaderView.getMeasuredWidth(), mHeaderView.getMeasuredHeight(), Bitmap.Config.ARGB_8888);
+        mHeaderView.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+
+    private View findFirstDataChild(final RecyclerView parent, final int top) {
+        View first = null;
+        final int childCount = parent.getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            final View child = parent.getChildAt(i);
+            if (child.getBottom() > top && (first == null || child.getTop() < first.getTop())
+                    && getDataPosition(parent, child) != RecyclerView.NO_POSITION) {
+                first = child;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * @return the position of the child in the sectioned adapter, or NO_POSITION for header and footer views
+     */
+    private static int getDataPosition(final RecyclerView parent, final View child) {
+        final int position = parent.getChildAdapterPosition(child);
+        if (position == RecyclerView.NO_POSITION) {
+            return RecyclerView.NO_POSITION;
+        }
+        if (parent instanceof RecyclerAdapterView) {
+            final RecyclerAdapterView recyclerAdapterView = (RecyclerAdapterView) parent;
+            if (recyclerAdapterView.isFixedView(position)) {
+                return RecyclerView.NO_POSITION;
+            }
+            return position - recyclerAdapterView.getHeaderCount();
+        }
+        return position;
+    }
+
+    private static int getHeaderCount(final RecyclerView parent) {
+        return parent instanceof RecyclerAdapterView ? ((RecyclerAdapterView) parent).getHeaderCount() : 0;
+    }
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    public interface HeaderBinder {
+
+        /**
+         * @param convertView the view returned by the previous call, to bind again if possible
+         * @return the header view of the section, bound to its content
+         */
+        View getHeaderView(int section, View convertView, ViewGroup parent);
+    }
+}
@@ -0,0 +1,240 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v4.view.ViewCompat;
+import android.support.v7.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Collects the range notifications of an adapter during a frame, merges the adjacent and
+ * overlapping ones and dispatches the compacted list on the next animation frame.
+ * <p/>
+ * Notifications are forwarded immediately while the host is scrolling, so the adapter content
+ * never runs ahead of what the layout manager knows while it binds new rows.
+ * <p/>
+ * The compacted notifications are dispatched to a target observer, which notifies the adapter
+ * set on the host.
+ */
+class UpdateBatcher implements Runnable {
+
+    // type, first position, second position or count, count of a move, raw event count
+    private static final int OP_SIZE = 5;
+
+    private final RecyclerView mHost;
+    private RecyclerView.AdapterDataObserver mTarget;
+    private RecyclerAdapterView.OnUpdateBatchListener mListener;
+
+    private int[] mOps = new int[8 * OP_SIZE];
+    private int mOpCount;
+    private final ArrayList<Object> mPayloads = new ArrayList<>();
+
+    private boolean mScheduled;
+    private boolean mFlushing;
+    private long mRawUpdateCount;
+    private long mDispatchedUpdateCount;
+
+    UpdateBatcher(final RecyclerView host) {
+        mHost = host;
+    }
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    void setTarget(final RecyclerView.AdapterDataObserver target) {
+        if (mTarget != target) {
+            flush();
+            mTarget = target;
+        }
+    }
+
+    void setListener(final RecyclerAdapterView.OnUpdateBatchListener listener) {
+        mListener = listener;
+    }
+
+    long getRawUpdateCount() {
+        return mRawUpdateCount;
+    }
+
+    long getDispatchedUpdateCount() {
+        return mDispatchedUpdateCount;
+    }
+
+    void onChanged() {
+        if (mFlushing) {
+            add(RecyclerAdapterView.UPDATE_DATA_SET_CHANGED, 0, 0, 0, null);
+            return;
+        }
+        // A full change supersedes every pending update
+        int pendingEvents = 0;
+        for (int i = 0; i < mOpCount; i++) {
+            pendingEvents += mOps[i * OP_SIZE + 4];
+        }
+        mOpCount = 0;
+        mPayloads.clear();
+        add(RecyclerAdapterView.UPDATE_DATA_SET_CHANGED, 0, 0, 0, null);
+        if (mOpCount == 1) {
+            mOps[4] += pendingEvents;
+        }
+    }
+
+    void onItemRangeChanged(final int positionStart, final int itemCount, final Object payload) {
+        add(RecyclerAdapterView.UPDATE_CHANGE, positionStart, itemCount, 0, payload);
+    }
+
+    void onItemRangeInserted(final int positionStart, final int itemCount) {
+        add(RecyclerAdapterView.UPDATE_INSERT, positionStart, itemCount, 0, null);
+    }
+
+    void onItemRangeRemoved(final int positionStart, final int itemCount) {
+        add(RecyclerAdapterView.UPDATE_REMOVE, positionStart, itemCount, 0, null);
+    }
+
+    void onItemRangeMoved(final int fromPosition, final int toPosition, final int itemCount) {
+        add(RecyclerAdapterView.UPDATE_MOVE, fromPosition, toPosition, itemCount, null);
+    }
+
+    void flush() {
+        if (mFlushing) {
+            return;
+        }
+        if (mTarget != null) {
+            // Updates triggered by the dispatch itself are appended and dispatched in the same pass
+            mFlushing = true;
+            for (int i = 0; i < mOpCount; i++) {
+                final int index = i * OP_SIZE;
+                dispatch(mOps[index], mOps[index + 1], mOps[index + 2], mOps[index + 3], mOps[index + 4], mPayloads.get(i));
+            }
+            mFlushing = false;
+        }
+        mOpCount = 0;
+        mPayloads.clear();
+    }
+
+    @Override
+    public void run() {
+        mScheduled = false;
+        flush();
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private void add(final int type, final int first, final int second, final int count, final Object payload) {
+        mRawUpdateCount++;
+        if (!mFlushing && mTarget != null && isHostScrolling()) {
+            flush();
+            dispatch(type, first, second, count, 1, payload);
+            return;
+        }
+        if (mOpCount > 0 && !mFlushing && merge(type, first, second, payload)) {
+            return;
+        }
+        if ((mOpCount + 1) * OP_SIZE > mOps.length) {
+            mOps = Arrays.copyOf(mOps, mOps.length * 2);
+        }
+        final int index = mOpCount * OP_SIZE;
+        mOps[index] = type;
+        mOps[index + 1] = first;
+        mOps[index + 2] = second;
+        mOps[index + 3] = count;
+        mOps[index + 4] = 1;
+        mPayloads.add(payload);
+        mOpCount++;
+        if (!mScheduled) {
+            mScheduled = true;
+            scheduleFlush();
+        }
+    }
+
+    boolean isHostScrolling() {
+        return mHost.getScrollState() != RecyclerView.SCROLL_STATE_IDLE;
+    }
+
+    /**
+     * Runs this batcher on the next animation frame.
+     */
+    void scheduleFlush() {
+        ViewCompat.postOnAnimation(mHost, this);
+    }
+
+    /**
+     * Folds the update into the last pending one when possible.
+     */
+    private boolean merge(final int type, final int start, final int count, final Object payload) {
+        final int index = (mOpCount - 1) * OP_SIZE;
+        final int lastType = mOps[index];
+        final int lastStart = mOps[index + 1];
+        final int lastCount = mOps[index + 2];
+        boolean merged = false;
+
+        if (lastType == RecyclerAdapterView.UPDATE_DATA_SET_CHANGED) {
+            merged = true;
+        } else if (type == RecyclerAdapterView.UPDATE_CHANGE) {
+            if (lastType == RecyclerAdapterView.UPDATE_CHANGE && equals(payload, mPayloads.get(mOpCount - 1))
+                    && start <= lastStart + lastCount && start + count >= lastStart) {
+                final int end = Math.max(start + count, lastStart + lastCount);
+                mOps[index + 1] = Math.min(start, lastStart);
+                mOps[index + 2] = end - mOps[index + 1];
+                merged = true;
+            } else if (lastType == RecyclerAdapterView.UPDATE_INSERT && start >= lastStart && start + count <= lastStart + lastCount) {
+                // Freshly inserted rows are bound anyway
+                merged = true;
+            }
+        } else if (type == RecyclerAdapterView.UPDATE_INSERT && lastType == RecyclerAdapterView.UPDATE_INSERT) {
+            if (start >= lastStart && start <= lastStart + lastCount) {
+                mOps[index + 2] = lastCount + count;
+                merged = true;
+            }
+        } else if (type == RecyclerAdapterView.UPDATE_REMOVE && lastType == RecyclerAdapterView.UPDATE_REMOVE) {
+            if (start == lastStart) {
+                mOps[index + 2] = lastCount + count;
+                merged = true;
+            } else if (start + count == lastStart) {
+                mOps[index + 1] = start;
+                mOps[index + 2] = lastCount + count;
+                merged = true;
+            }
+        }
+
+        if (merged) {
+            mOps[index + 4]++;
+        }
+        return merged;
+    }
+
+    private void dispatch(final int type, final int first, final int second, final int count, final int rawEvents, final Object payload) {
+        switch (type) {
+            case RecyclerAdapterView.UPDATE_DATA_SET_CHANGED:
+                mTarget.onChanged();
+                break;
+            case RecyclerAdapterView.UPDATE_CHANGE:
+                mTarget.onItemRangeChanged(first, second, payload);
+                break;
+            case RecyclerAdapterView.UPDATE_INSERT:
+                mTarget.onItemRangeInserted(first, second);
+                break;
+            case RecyclerAdapterView.UPDATE_REMOVE:
+                mTarget.onItemRangeRemoved(first, second);
+                break;
+            case RecyclerAdapterView.UPDATE_MOVE:
+                mTarget.onItemRangeMoved(first, second, count);
+                break;
+        }
+        mDispatchedUpdateCount++;
+        if (mListener != null) {
+            final boolean isMove = type == RecyclerAdapterView.UPDATE_MOVE;
+            mListener.onUpdateDispatched(type, first, isMove ? count : second, rawEvents);
+        }
+    }
+
+    private static boolean equals(final Object a, final Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
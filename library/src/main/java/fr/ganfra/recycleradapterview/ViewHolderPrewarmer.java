@@ -0,0 +1,172 @@
+package fr.ganfra.recycleradapterview;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseIntArray;
+
+import java.util.ArrayList;
+
+/**
+ * Creates view holders in small slices while the main looper is idle and puts them in the
+ * recycled view pool, so the first scroll finds them there instead of inflating rows.
+ * <p/>
+ * An idle handler only runs again once the queue has handled a message, so each slice posts an
+ * empty one : otherwise the prewarming would stop on a screen with nothing else to do.
+ * <p/>
+ * The capacity of a view type is only raised to its target count, and a type stops once the pool
+ * holds as many holders as its capacity. A plain RecycledViewPool doesn't expose its capacities,
+ * so they are assumed to be the default one : only a {@link SharedRecycledViewPool} keeps a
+ * larger capacity set by the app.
+ */
+class ViewHolderPrewarmer implements MessageQueue.IdleHandler {
+
+    private static final long SLICE_NANOS = 4000000L;
+    private static final int DEFAULT_MAX_SCRAP = 5;
+
+    private final RecyclerView mHost;
+    private final RecyclerView.Adapter mAdapter;
+    private final SparseIntArray mRemaining;
+    // Capacities of the view types in a plain pool, which can't be read back
+    private final SparseIntArray mCapacities = new SparseIntArray();
+    private final long mBudgetNanos;
+    private final RecyclerAdapterView.OnPrewarmListener mListener;
+    private final Handler mHandler = new Handler();
+    private final Runnable mNextSlice = new Runnable() {
+        @Override
+        public void run() {
+            // Nothing to do : handling the message makes the queue idle again
+        }
+    };
+
+    private long mSpentNanos;
+    // Holders actually kept by the pool
+    private int mCreatedCount;
+    private boolean mFinished;
+
+    ViewHolderPrewarmer(final RecyclerView host, final SparseIntArray targetCounts, final long budgetNanos,
+                        final RecyclerAdapterView.OnPrewarmListener listener) {
+        mHost = host;
+        mAdapter = host.getAdapter();
+        mRemaining = new SparseIntArray(targetCounts.size());
+        for (int i = 0; i < targetCounts.size(); i++) {
+            mRemaining.put(targetCounts.keyAt(i), targetCounts.valueAt(i));
+        }
+        mBudgetNanos = budgetNanos;
+        mListener = listener;
+
+        final RecyclerView.RecycledViewPool pool = host.getRecycledViewPool();
+        for (int i = 0; i < mRemaining.size(); i++) {
+            final int viewType = mRemaining.keyAt(i);
+            final int capacity = pool instanceof SharedRecycledViewPool
+                    ? ((SharedRecycledViewPool) pool).getCapacity(viewType) : DEFAULT_MAX_SCRAP;
+            if (mRemaining.valueAt(i) > capacity) {
+                pool.setMaxRecycledViews(viewType, mRemaining.valueAt(i));
+            }
+            mCapacities.put(viewType, Math.max(capacity, mRemaining.valueAt(i)));
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * PUBLIC METHODS
+     * **********************************************************************************
+     */
+
+    void start() {
+        Looper.myQueue().addIdleHandler(this);
+    }
+
+    void cancel() {
+        if (!mFinished) {
+            Looper.myQueue().removeIdleHandler(this);
+            mHandler.removeCallbacks(mNextSlice);
+            finish();
+        }
+    }
+
+    @Override
+    public boolean queueIdle() {
+        if (mFinished) {
+            return false;
+        }
+        if (mAdapter == null || mHost.getAdapter() != mAdapter) {
+            finish();
+            return false;
+        }
+        final RecyclerView.RecycledViewPool pool = mHost.getRecycledViewPool();
+        final long sliceStart = System.nanoTime();
+        long elapsed = 0;
+        int index = 0;
+        while (index < mRemaining.size() && elapsed < SLICE_NANOS && mSpentNanos + elapsed < mBudgetNanos) {
+            final int viewType = mRemaining.keyAt(index);
+            final int remaining = mRemaining.valueAt(index);
+            if (remaining <= 0) {
+                index++;
+                continue;
+            }
+            final int pooledCount = getRecycledViewCount(pool, viewType);
+            if (pooledCount >= getCapacity(pool, viewType)) {
+                // The pool is full for this type, a new holder would be dropped
+                mRemaining.put(viewType, 0);
+                continue;
+            }
+            // Timed by the adapter, like the creations of the layout
+            final RecyclerView.ViewHolder holder = mAdapter.createViewHolder(mHost, viewType);
+            pool.putRecycledView(holder);
+            if (getRecycledViewCount(pool, viewType) > pooledCount) {
+                mRemaining.put(viewType, remaining - 1);
+                mCreatedCount++;
+            } else {
+                // Dropped by a pool smaller than assumed, it is full
+                mRemaining.put(viewType, 0);
+            }
+            elapsed = System.nanoTime() - sliceStart;
+        }
+        mSpentNanos += elapsed;
+        if (index >= mRemaining.size() || mSpentNanos >= mBudgetNanos) {
+            finish();
+            return false;
+        }
+        mHandler.post(mNextSlice);
+        return true;
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private int getCapacity(final RecyclerView.RecycledViewPool pool, final int viewType) {
+        if (pool instanceof SharedRecycledViewPool) {
+            // Read again, an adaptive pool may have resized it since
+            return ((SharedRecycledViewPool) pool).getCapacity(viewType);
+        }
+        return mCapacities.get(viewType);
+    }
+
+    private static int getRecycledViewCount(final RecyclerView.RecycledViewPool pool, final int viewType) {
+        if (pool instanceof SharedRecycledViewPool) {
+            return ((SharedRecycledViewPool) pool).getRecycledViewCount(viewType);
+        }
+        // Counted by taking the holders out and putting them back in the same order
+        final ArrayList<RecyclerView.ViewHolder> holders = new ArrayList<>();
+        RecyclerView.ViewHolder holder;
+        while ((holder = pool.getRecycledView(viewType)) != null) {
+            holders.add(holder);
+        }
+        for (int i = holders.size() - 1; i >= 0; i--) {
+            pool.putRecycledView(holders.get(i));
+        }
+        return holders.size();
+    }
+
+    private void finish() {
+        mFinished = true;
+        if (mListener != null) {
+            mListener.onPrewarmFinished(mCreatedCount);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package fr.ganfra.recycleradapterview;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Queues the worker tasks to run them when the test decides, and inflates plain views instead of
+ * layouts. Checks the ready views serve the creations, and that clearing drops them as well as the
+ * inflations in progress, while detaching the adapter keeps them.
+ */
+public class AsyncItemInflaterTest {
+
+    private static final int LAYOUT_ID = 1;
+
+    @Test
+    public void readyViewsServeTheCreations() {
+        final QueueExecutor worker = new QueueExecutor();
+        final TestInflater inflater = new TestInflater(worker);
+        inflater.inflateAsync(null, LAYOUT_ID, 0, 2);
+        assertEquals(0, inflater.getReadyCount(0));
+
+        worker.runNext();
+        assertEquals(2, inflater.getReadyCount(0));
+        assertEquals(0, inflater.getReadyCount(1));
+        assertEquals(Collections.singletonList(true), inflater.mWorkerInflations);
+
+        assertSame(inflater.mViews.get(0), inflater.obtain(null, LAYOUT_ID, 0));
+        assertEquals(1, inflater.getReadyCount(0));
+        assertEquals(1, inflater.getHitCount());
+
+        // Nothing ready for this type, inflated on the calling thread
+        final View view = inflater.obtain(null, LAYOUT_ID, 1);
+        assertSame(inflater.mViews.get(2), view);
+        assertEquals(Arrays.asList(true, false), inflater.mWorkerInflations);
+        assertEquals(1, inflater.getMissCount());
+
+        inflater.obtain(null, LAYOUT_ID, 0);
+        inflater.obtain(null, LAYOUT_ID, 0);
+        assertEquals(2, inflater.getHitCount());
+        assertEquals(2, inflater.getMissCount());
+
+        inflater.resetCounts();
+        assertEquals(0, inflater.getHitCount());
+        assertEquals(0, inflater.getMissCount());
+    }
+
+    @Test
+    public void failedInflationStopsTheBatch() {
+        final QueueExecutor worker = new QueueExecutor();
+        final TestInflater inflater = new TestInflater(worker);
+        inflater.mFailAt = 2;
+        inflater.inflateAsync(null, LAYOUT_ID, 0, 5);
+        worker.runNext();
+        assertEquals(2, inflater.getReadyCount(0));
+
+        // Inflated again on the calling thread once the ready ones are used
+        inflater.mFailAt = -1;
+        inflater.obtain(null, LAYOUT_ID, 0);
+        inflater.obtain(null, LAYOUT_ID, 0);
+        final View view = inflater.obtain(null, LAYOUT_ID, 0);
+        assertSame(inflater.mViews.get(2), view);
+        assertEquals(1, inflater.getMissCount());
+    }
+
+    @Test
+    public void clearDropsTheViewsInProgress() {
+        final QueueExecutor worker = new QueueExecutor();
+        final TestInflater inflater = new TestInflater(worker);
+        inflater.inflateAsync(null, LAYOUT_ID, 0, 2);
+        worker.runNext();
+        inflater.inflateAsync(null, LAYOUT_ID, 0, 2);
+        inflater.clear();
+        assertEquals(0, inflater.getReadyCount(0));
+
+        // Not started before the clear
+        worker.runNext();
+        assertEquals(0, inflater.getReadyCount(0));
+        assertEquals(2, inflater.mViews.size());
+
+        // Cleared while the second view is inflated
+        inflater.inflateAsync(null, LAYOUT_ID, 0, 4);
+        inflater.mClearAt = 3;
+        worker.runNext();
+        assertEquals(0, inflater.getReadyCount(0));
+        assertEquals(4, inflater.mViews.size());
+
+        inflater.mClearAt = -1;
+        inflater.inflateAsync(null, LAYOUT_ID, 0, 1);
+        worker.runNext();
+        assertEquals(1, inflater.getReadyCount(0));
+    }
+
+    @Test
+    public void detachedAdapterKeepsTheReadyViews() {
+        final QueueExecutor worker = new QueueExecutor();
+        final TestInflater inflater = new TestInflater(worker);
+        final TestAdapter adapter = new TestAdapter();
+        adapter.setItemInflater(inflater);
+        adapter.inflateItemViewsAsync(null, 0, 2);
+        worker.runNext();
+        assertEquals(2, adapter.getReadyItemViewCount(0));
+
+        // What a header wrapper forwards when the RecyclerAdapterView swaps it in
+        adapter.onDetachedFromRecyclerView(null);
+        assertEquals(2, adapter.getReadyItemViewCount(0));
+        assertSame(inflater.mViews.get(0), adapter.createViewHolder(null, 0).itemView);
+        assertEquals(1, adapter.getInflationHitCount());
+        assertEquals(0, adapter.getInflationMissCount());
+
+        adapter.clearInflatedItemViews();
+        assertEquals(0, adapter.getReadyItemViewCount(0));
+        adapter.createViewHolder(null, 0);
+        assertEquals(1, adapter.getInflationMissCount());
+    }
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    /**
+     * Inflates plain views, the layouts being unavailable to the tests.
+     */
+    private static final class TestInflater extends AsyncItemInflater {
+
+        final List<View> mViews = new ArrayList<>();
+        final List<Boolean> mWorkerInflations = new ArrayList<>();
+        int mFailAt = -1;
+        int mClearAt = -1;
+
+        TestInflater(final Executor executor) {
+            super(executor);
+        }
+
+        @Override
+        LayoutInflater getInflater(ViewGroup parent, boolean worker) {
+            mWorkerInflations.add(worker);
+            return null;
+        }
+
+        @Override
+        View inflate(LayoutInflater inflater, int layoutId, ViewGroup parent) {
+            assertEquals(LAYOUT_ID, layoutId);
+            if (mViews.size() == mFailAt) {
+                throw new IllegalStateException("Inflation " + mFailAt);
+            }
+            if (mViews.size() == mClearAt) {
+                clear();
+            }
+            final View view = new View(null);
+            mViews.add(view);
+            return view;
+        }
+    }
+
+    private static class TestAdapter extends RecyclerAdapterView.Adapter<RecyclerAdapterView.ViewHolder> {
+
+        @Override
+        public Object getItem(int position) {
+            return position;
+        }
+
+        @Override
+        public int getItemCount() {
+            return 3;
+        }
+
+        @Override
+        protected int getItemLayoutId(int viewType) {
+            return LAYOUT_ID;
+        }
+
+        @Override
+        public RecyclerAdapterView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            // Without the item click listeners, View is not available to the tests
+            return new RecyclerAdapterView.ViewHolder(inflateItemView(parent, viewType), false);
+        }
+    }
+
+    private static final class QueueExecutor implements Executor {
+
+        final Queue<Runnable> mTasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable runnable) {
+            mTasks.add(runnable);
+        }
+
+        void runNext() {
+            mTasks.remove().run();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the checked items of each choice mode, and that they follow their items through the
+ * range notifications of the adapter.
+ */
+public class ChoiceStateTest {
+
+    @Test
+    public void nothingCheckedWithoutChoiceMode() {
+        final ChoiceState state = newState(RecyclerAdapterView.CHOICE_MODE_NONE, 5);
+        assertFalse(state.setItemChecked(1, true));
+        assertFalse(state.performItemChoice(1));
+        assertEquals(0, state.getCheckedItemCount());
+        assertEquals(RecyclerView.NO_POSITION, state.getCheckedItemPosition());
+    }
+
+    @Test
+    public void singleChoiceKeepsOneItem() {
+        final ChoiceState state = newState(RecyclerAdapterView.CHOICE_MODE_SINGLE, 5);
+        state.setItemChecked(1, true);
+        state.setItemChecked(3, true);
+        assertEquals(1, state.getCheckedItemCount());
+        assertEquals(3, state.getCheckedItemPosition());
+
+        // Clicking the checked item keeps it checked
+        assertTrue(state.performItemChoice(3));
+        assertEquals(3, state.getCheckedItemPosition());
+
+        state.setItemChecked(3, false);
+        assertEquals(RecyclerView.NO_POSITION, state.getCheckedItemPosition());
+    }
+
+    @Test
+    public void multipleChoiceTogglesItems() {
+        final ChoiceState state = newState(RecyclerAdapterView.CHOICE_MODE_MULTIPLE, 5);
+        state.performItemChoice(1);
+        state.performItemChoice(4);
+        state.performItemChoice(2);
+        state.performItemChoice(1);
+        assertArrayEquals(new int[]{2, 4}, state.getCheckedItemPositions());
+        assertEquals(RecyclerView.NO_POSITION, state.getCheckedItemPosition());
+
+        state.checkAll();
+        assertEquals(5, state.getCheckedItemCount());
+        state.clear();
+        assertEquals(0, state.getCheckedItemCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void checkAllOnlyInMultipleChoice() {
+        newState(RecyclerAdapterView.CHOICE_MODE_SINGLE, 5).checkAll();
+    }
+
+    @Test
+    public void modeChangeClearsItems() {
+        final ChoiceState state = newState(RecyclerAdapterView.CHOICE_MODE_MULTIPLE, 5);
+        state.checkAll();
+        state.setChoiceMode(RecyclerAdapterView.CHOICE_MODE_SINGLE);
+        assertEquals(0, state.getCheckedItemCount());
+    }
+
+    @Test
+    public void noIdsWithoutStableIds() {
+        final ChoiceState state = newState(RecyclerAdapterView.CHOICE_MODE_MULTIPLE, 5);
+        state.checkAll();
+        assertEquals(0, state.getCheckedItemIds().length);
+    }
+
+    @Test
+    public void randomNotifications() {
+        final Random random = new Random(42);
+        final ChoiceState state = newState(RecyclerAdapterView.CHOICE_MODE_MULTIPLE, 100);
+        final IdAdapter adapter = (IdAdapter) state.getAdapter();
+        final List<Long> ids = adapter.mIds;
+        final Set<Long> checked = new HashSet<>();
+        for (int iteration = 0; iteration < 5000; iteration++) {
+            final int op = random.nextInt(ids.isEmpty() ? 1 : 20);
+            if (op < 4) {
+                final int start = random.nextInt(ids.size() + 1);
+                final int count = 1 + random.nextInt(70);
+                for (int i = 0; i < count; i++) {
+                    ids.add(start + i, adapter.mNextId++);
+                }
+                state.onItemRangeInserted(start, count);
+            } else if (op < 7) {
+                final int start = random.nextInt(ids.size());
+                final int count = 1 + random.nextInt(Math.min(70, ids.size() - start));
+                ids.subList(start, start + count).clear();
+                state.onItemRangeRemoved(start, count);
+            } else if (op < 9) {
+                final int from = random.nextInt(ids.size());
+                final int count = 1 + random.nextInt(Math.min(70, ids.size() - from));
+                final int to = random.nextInt(ids.size() - count + 1);
+                final List<Long> block = new ArrayList<>(ids.subList(from, from + count));
+                ids.subList(from, from + count).clear();
+                ids.addAll(to, block);
+                state.onItemRangeMoved(from, to, count);
+            } else if (op < 19) {
+                final int position = random.nextInt(ids.size());
+                state.performItemChoice(position);
+                if (!checked.remove(ids.get(position))) {
+                    checked.add(ids.get(position));
+                }
+            } else if (random.nextInt(10) == 0) {
+                state.onChanged();
+                checked.clear();
+            }
+            if (ids.size() > 400) {
+                final int count = ids.size() - 200;
+                ids.subList(200, ids.size()).clear();
+                state.onItemRangeRemoved(200, count);
+            }
+            checked.retainAll(ids);
+            assertChecked(ids, checked, state);
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private static ChoiceState newState(final int choiceMode, final int itemCount) {
+        final ChoiceState state = new ChoiceState();
+        state.setChoiceMode(choiceMode);
+        state.setAdapter(new IdAdapter(itemCount));
+        return state;
+    }
+
+    private static void assertChecked(final List<Long> ids, final Set<Long> checked, final ChoiceState state) {
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (checked.contains(ids.get(i))) {
+                expected.add(i);
+            }
+        }
+        final int[] positions = state.getCheckedItemPositions();
+        assertEquals(expected.size(), state.getCheckedItemCount());
+        assertEquals(expected.size(), positions.length);
+        for (int i = 0; i < positions.length; i++) {
+            assertEquals(expected.get(i).intValue(), positions[i]);
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals("position " + i, checked.contains(ids.get(i)), state.isItemChecked(i));
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    private static final class IdAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+        final List<Long> mIds = new ArrayList<>();
+        long mNextId;
+
+        IdAdapter(final int itemCount) {
+            while (mIds.size() < itemCount) {
+                mIds.add(mNextId++);
+            }
+        }
+
+        @Override
+        public int getItemCount() {
+            return mIds.size();
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Two children using the same local view types, 0 for even rows and 1 for odd ones : each must
+ * create and bind its own holders, and the global view types must not collide. The updates of the
+ * composite are recorded instead of being dispatched to its observers, and the children keep
+ * theirs to notify them directly.
+ */
+public class CompositeAdapterTest {
+
+    private ChildAdapter mFirst;
+    private ChildAdapter mSecond;
+    private CompositeAdapter mAdapter;
+    private final List<String> mUpdates = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        mFirst = new ChildAdapter(3);
+        mSecond = new ChildAdapter(2);
+        mAdapter = new CompositeAdapter();
+        mAdapter.setUpdateTarget(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                mUpdates.add("change");
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                mUpdates.add("change " + positionStart + " " + itemCount);
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                mUpdates.add("insert " + positionStart + " " + itemCount);
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                mUpdates.add("remove " + positionStart + " " + itemCount);
+            }
+
+            @Override
+            public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                mUpdates.add("move " + fromPosition + " " + toPosition + " " + itemCount);
+            }
+        });
+        mAdapter.addAdapter(mFirst);
+        mAdapter.addAdapter(mSecond);
+    }
+
+    @Test
+    public void overlappingLocalViewTypes() {
+        assertEquals(5, mAdapter.getItemCount());
+        assertNotEquals(mAdapter.getItemViewType(0), mAdapter.getItemViewType(3));
+        assertNotEquals(mAdapter.getItemViewType(1), mAdapter.getItemViewType(4));
+        assertEquals(mAdapter.getItemViewType(0), mAdapter.getItemViewType(2));
+
+        for (int position = 0; position < mAdapter.getItemCount(); position++) {
+            final int viewType = mAdapter.getItemViewType(position);
+            final RecyclerAdapterView.ViewHolder holder = mAdapter.createViewHolder(null, viewType);
+            final ChildAdapter child = (ChildAdapter) mAdapter.getAdapterForPosition(position);
+            final int childPosition = mAdapter.getChildPosition(position);
+
+            assertSame(child, ((Holder) holder).mCreator);
+            assertEquals(childPosition % 2, ((Holder) holder).mLocalViewType);
+            assertEquals(viewType, holder.getItemViewType());
+            assertEquals(childPosition % 2, mAdapter.getLocalViewType(holder));
+
+            mAdapter.bindViewHolder(holder, position);
+            assertEquals(childPosition, child.mBoundPositions.get(child.mBoundPositions.size() - 1).intValue());
+        }
+        assertEquals(3, mFirst.mBoundPositions.size());
+        assertEquals(2, mSecond.mBoundPositions.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void foreignViewType() {
+        mAdapter.getLocalViewType(mFirst.createViewHolder(null, 7));
+    }
+
+    @Test
+    public void childUpdatesAreShifted() {
+        assertEquals(Arrays.asList("insert 0 3", "insert 3 2"), takeUpdates());
+
+        mSecond.insert(1, 4);
+        assertEquals(Collections.singletonList("insert 4 4"), takeUpdates());
+        assertEquals(9, mAdapter.getItemCount());
+        assertSame(mSecond, mAdapter.getAdapterForPosition(3));
+        assertEquals(5, mAdapter.getChildPosition(8));
+
+        mFirst.remove(0, 2);
+        assertEquals(Collections.singletonList("remove 0 2"), takeUpdates());
+        assertEquals(7, mAdapter.getItemCount());
+        assertSame(mSecond, mAdapter.getAdapterForPosition(1));
+        assertEquals(5, mAdapter.getPosition(mSecond, 4));
+
+        mSecond.notifyObservers("move", 0, 3, 2);
+        mSecond.notifyObservers("change", 2, 1, 0);
+        assertEquals(Arrays.asList("move 1 4 2", "change 3 1"), takeUpdates());
+    }
+
+    @Test
+    public void addAndRemoveChildren() {
+        takeUpdates();
+        final ChildAdapter middle = new ChildAdapter(4);
+        mAdapter.addAdapter(1, middle);
+        assertEquals(Collections.singletonList("insert 3 4"), takeUpdates());
+        assertSame(middle, mAdapter.getAdapterForPosition(3));
+        assertSame(mSecond, mAdapter.getAdapterForPosition(7));
+        assertEquals(1, middle.mObservers.size());
+
+        // Empty children don't notify
+        mAdapter.addAdapter(0, new ChildAdapter(0));
+        assertTrue(takeUpdates().isEmpty());
+
+        assertTrue(mAdapter.removeAdapter(middle));
+        assertEquals(Collections.singletonList("remove 3 4"), takeUpdates());
+        assertTrue(middle.mObservers.isEmpty());
+        assertSame(mSecond, mAdapter.getAdapterForPosition(3));
+        assertEquals(RecyclerView.NO_POSITION, mAdapter.getPosition(middle, 0));
+    }
+
+    @Test
+    public void removedChildReleasesItsViewTypes() {
+        final RecyclerAdapterView.ViewHolder first = mAdapter.createViewHolder(null, mAdapter.getItemViewType(0));
+        final RecyclerAdapterView.ViewHolder second = mAdapter.createViewHolder(null, mAdapter.getItemViewType(3));
+        final int lastViewType = mAdapter.getItemViewType(4);
+        mAdapter.removeAdapter(mFirst);
+
+        // Still on screen while it animates out : not handed to the removed child
+        mAdapter.onViewRecycled(first);
+        assertTrue(mFirst.mRecycledHolders.isEmpty());
+        assertEquals(0, mAdapter.getLocalViewType(first));
+        mAdapter.onViewRecycled(second);
+        assertEquals(Collections.singletonList(second), mSecond.mRecycledHolders);
+
+        // The released view types are not given again
+        final ChildAdapter added = new ChildAdapter(2);
+        mAdapter.addAdapter(added);
+        assertEquals(lastViewType + 1, mAdapter.getItemViewType(2));
+        assertEquals(lastViewType + 2, mAdapter.getItemViewType(3));
+        final RecyclerAdapterView.ViewHolder holder = mAdapter.createViewHolder(null, mAdapter.getItemViewType(3));
+        assertSame(added, ((Holder) holder).mCreator);
+        mAdapter.onViewRecycled(holder);
+        assertEquals(Collections.singletonList(holder), added.mRecycledHolders);
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private List<String> takeUpdates() {
+        final List<String> updates = new ArrayList<>(mUpdates);
+        mUpdates.clear();
+        return updates;
+    }
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    /**
+     * Keeps its observers : the observable of RecyclerView.Adapter is not available to the tests.
+     */
+    private static class ChildAdapter extends RecyclerAdapterView.Adapter<Holder> {
+
+        final List<Integer> mBoundPositions = new ArrayList<>();
+        final List<RecyclerView.ViewHolder> mRecycledHolders = new ArrayList<>();
+        final List<RecyclerView.AdapterDataObserver> mObservers = new ArrayList<>();
+        private int mItemCount;
+
+        ChildAdapter(final int itemCount) {
+            mItemCount = itemCount;
+        }
+
+        void insert(final int positionStart, final int itemCount) {
+            mItemCount += itemCount;
+            notifyObservers("insert", positionStart, itemCount, 0);
+        }
+
+        void remove(final int positionStart, final int itemCount) {
+            mItemCount -= itemCount;
+            notifyObservers("remove", positionStart, itemCount, 0);
+        }
+
+        void notifyObservers(final String type, final int first, final int second, final int third) {
+            for (RecyclerView.AdapterDataObserver observer : mObservers) {
+                switch (type) {
+                    case "insert":
+                        observer.onItemRangeInserted(first, second);
+                        break;
+                    case "remove":
+                        observer.onItemRangeRemoved(first, second);
+                        break;
+                    case "change":
+                        observer.onItemRangeChanged(first, second);
+                        break;
+                    default:
+                        observer.onItemRangeMoved(first, second, third);
+                        break;
+                }
+            }
+        }
+
+        @Override
+        public void registerAdapterDataObserver(RecyclerView.AdapterDataObserver observer) {
+            mObservers.add(observer);
+        }
+
+        @Override
+        public void unregisterAdapterDataObserver(RecyclerView.AdapterDataObserver observer) {
+            mObservers.remove(observer);
+        }
+
+        @Override
+        public Object getItem(int position) {
+            return position;
+        }
+
+        @Override
+        public int getItemCount() {
+            return mItemCount;
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return position % 2;
+        }
+
+        @Override
+        public Holder onCreateViewHolder(ViewGroup parent, int viewType) {
+            return new Holder(new View(null), this, viewType);
+        }
+
+        @Override
+        public void onBindViewHolder(Holder holder, int position) {
+            assertSame(this, holder.mCreator);
+            mBoundPositions.add(position);
+        }
+
+        @Override
+        public void onViewRecycled(Holder holder) {
+            assertSame(this, holder.mCreator);
+            mRecycledHolders.add(holder);
+        }
+    }
+
+    private static class Holder extends RecyclerAdapterView.ViewHolder {
+
+        final ChildAdapter mCreator;
+        final int mLocalViewType;
+
+        Holder(final View itemView, final ChildAdapter creator, final int localViewType) {
+            // Without the item click listeners, View is not available to the tests
+            super(itemView, false);
+            mCreator = creator;
+            mLocalViewType = localViewType;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Applies the updates published by each filter pass to the items shown before and checks they
+ * give the items matching the new constraint. The worker and main thread executors run the
+ * tasks directly, or queue them to check that a new constraint cancels the pending passes.
+ */
+public class FilterableAdapterTest {
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    @Test
+    public void updatesGiveTheMatchingItems() {
+        final Random random = new Random(42);
+        final TestAdapter adapter = new TestAdapter(DIRECT, DIRECT);
+        final ShownItems shown = new ShownItems(adapter);
+        adapter.setUpdateTarget(shown);
+        adapter.setItems(randomItems(random, 200));
+        assertEquals(adapter.getItems(), shown.mItems);
+
+        String constraint = null;
+        for (int iteration = 0; iteration < 2000; iteration++) {
+            final int op = random.nextInt(10);
+            if (op < 4 && constraint != null) {
+                // Typed further, only the current matches are scanned
+                constraint = constraint + randomChar(random);
+            } else if (op < 5 && constraint != null && !constraint.isEmpty()) {
+                constraint = constraint.substring(0, constraint.length() - 1);
+            } else if (op < 9) {
+                constraint = random.nextInt(8) == 0 ? null : randomString(random, random.nextInt(3));
+            } else {
+                adapter.setItems(randomItems(random, random.nextInt(200)));
+            }
+            adapter.filter(constraint);
+
+            final List<String> expected = new ArrayList<>();
+            for (String item : adapter.getItems()) {
+                if (constraint == null || item.contains(constraint)) {
+                    expected.add(item);
+                }
+            }
+            assertEquals("constraint " + constraint, expected, shown.mItems);
+            assertEquals(expected.size(), adapter.getItemCount());
+        }
+    }
+
+    @Test
+    public void contiguousUpdatesAreMerged() {
+        final TestAdapter adapter = new TestAdapter(DIRECT, DIRECT);
+        final List<String> updates = new ArrayList<>();
+        adapter.setUpdateTarget(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                updates.add("insert " + positionStart + " " + itemCount);
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                updates.add("remove " + positionStart + " " + itemCount);
+            }
+        });
+        adapter.setItems(Arrays.asList("ab", "b", "b", "ab", "ab", "c", "a"));
+
+        adapter.filter("a");
+        assertEquals(Arrays.asList("remove 1 2", "remove 3 1"), updates);
+
+        updates.clear();
+        adapter.filter("");
+        assertEquals(Arrays.asList("insert 1 2", "insert 5 1"), updates);
+
+        updates.clear();
+        adapter.filter("d");
+        assertEquals(Collections.singletonList("remove 0 7"), updates);
+
+        updates.clear();
+        adapter.filter(null);
+        assertEquals(Collections.singletonList("insert 0 7"), updates);
+    }
+
+    @Test
+    public void refinementOnlyMatchesTheCurrentResult() {
+        final TestAdapter adapter = new TestAdapter(DIRECT, DIRECT);
+        adapter.setUpdateTarget(new RecyclerView.AdapterDataObserver() {
+        });
+        adapter.setItems(randomItems(new Random(42), 100));
+
+        adapter.filter("a");
+        assertEquals(100, adapter.mMatchCalls);
+        final int matchCount = adapter.getItemCount();
+
+        adapter.mMatchCalls = 0;
+        adapter.filter("ab");
+        assertEquals(matchCount, adapter.mMatchCalls);
+
+        adapter.mMatchCalls = 0;
+        adapter.filter("b");
+        assertEquals(100, adapter.mMatchCalls);
+
+        // New items are all matched, the result computed on the previous ones is no base
+        adapter.mMatchCalls = 0;
+        adapter.setItems(randomItems(new Random(43), 100));
+        assertEquals(100, adapter.mMatchCalls);
+
+        final int newMatchCount = adapter.getItemCount();
+        adapter.mMatchCalls = 0;
+        adapter.filter("bc");
+        assertEquals(newMatchCount, adapter.mMatchCalls);
+    }
+
+    @Test
+    public void newConstraintCancelsPendingPasses() {
+        final QueueExecutor worker = new QueueExecutor();
+        final QueueExecutor main = new QueueExecutor();
+        final TestAdapter adapter = new TestAdapter(worker, main);
+        final ShownItems shown = new ShownItems(adapter);
+        adapter.setUpdateTarget(shown);
+        adapter.setItems(randomItems(new Random(42), 100));
+
+        // Cancelled before its pass starts
+        adapter.filter("a");
+        adapter.filter("b");
+        worker.runNext();
+        assertEquals(0, adapter.mMatchCalls);
+        assertTrue(main.mTasks.isEmpty());
+        worker.runNext();
+        assertEquals(100, adapter.mMatchCalls);
+        main.runNext();
+        assertEquals("b", adapter.getConstraint());
+        assertEquals(1, adapter.mCompleteCount);
+
+        // Cancelled once its result is computed, before it is published
+        adapter.filter("c");
+        worker.runNext();
+        adapter.filter("bb");
+        main.runNext();
+        assertEquals("b", adapter.getConstraint());
+        assertEquals(1, adapter.mCompleteCount);
+        worker.runNext();
+        main.runNext();
+        assertEquals("bb", adapter.getConstraint());
+        assertEquals(2, adapter.mCompleteCount);
+
+        final List<String> expected = new ArrayList<>();
+        for (String item : adapter.getItems()) {
+            if (item.contains("bb")) {
+                expected.add(item);
+            }
+        }
+        assertEquals(expected, shown.mItems);
+
+        // Items set without a constraint are shown right away, the pending pass is not published
+        adapter.filter(null);
+        adapter.setItems(randomItems(new Random(43), 10));
+        assertEquals(adapter.getItems(), shown.mItems);
+        worker.runNext();
+        main.runNext();
+        assertEquals(2, adapter.mCompleteCount);
+        assertNull(adapter.getConstraint());
+        assertEquals(adapter.getItems(), shown.mItems);
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private static List<String> randomItems(final Random random, final int count) {
+        final List<String> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(randomString(random, 1 + random.nextInt(5)));
+        }
+        return items;
+    }
+
+    private static String randomString(final Random random, final int length) {
+        final StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(randomChar(random));
+        }
+        return builder.toString();
+    }
+
+    private static char randomChar(final Random random) {
+        return (char) ('a' + random.nextInt(3));
+    }
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    private static final class TestAdapter extends FilterableAdapter<String, RecyclerAdapterView.ViewHolder> {
+
+        int mMatchCalls;
+        int mCompleteCount;
+
+        TestAdapter(final Executor executor, final Executor mainThreadExecutor) {
+            super(executor, mainThreadExecutor);
+        }
+
+        @Override
+        protected boolean matches(String item, CharSequence constraint) {
+            mMatchCalls++;
+            return item.contains(constraint);
+        }
+
+        @Override
+        protected void onFilterComplete(CharSequence constraint, int count) {
+            mCompleteCount++;
+        }
+
+        @Override
+        public RecyclerAdapterView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Items shown by a RecyclerView, following the updates of the adapter. The inserted items are
+     * read from the adapter : each update is applied in order, so the items before it already are
+     * the new ones.
+     */
+    private static final class ShownItems extends RecyclerView.AdapterDataObserver {
+
+        final FilterableAdapter<String, ?> mAdapter;
+        final List<String> mItems = new ArrayList<>();
+
+        ShownItems(final FilterableAdapter<String, ?> adapter) {
+            mAdapter = adapter;
+        }
+
+        @Override
+        public void onChanged() {
+            mItems.clear();
+            for (int i = 0; i < mAdapter.getItemCount(); i++) {
+                mItems.add(mAdapter.getItem(i));
+            }
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            for (int i = positionStart; i < positionStart + itemCount; i++) {
+                mItems.add(i, mAdapter.getItem(i));
+            }
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            mItems.subList(positionStart, positionStart + itemCount).clear();
+        }
+    }
+
+    private static final class QueueExecutor implements Executor {
+
+        final Queue<Runnable> mTasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable runnable) {
+            mTasks.add(runnable);
+        }
+
+        void runNext() {
+            mTasks.remove().run();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the positions of the index against a linear scan of the adapter ids after each
+ * notification, the log of pending shifts overflowing into a re-index along the way.
+ */
+public class ItemIdIndexTest {
+
+    @Test
+    public void insertsBeyondThePendingShifts() {
+        final IdAdapter adapter = new IdAdapter(10);
+        final ItemIdIndex index = new ItemIdIndex(adapter);
+        // Far more shifts than the log holds, each one moving every indexed position
+        for (int i = 0; i < 300; i++) {
+            adapter.mIds.add(0, adapter.mNextId++);
+            index.onItemRangeInserted(0, 1);
+            assertPositions(adapter, index);
+        }
+    }
+
+    @Test
+    public void removesBeyondThePendingShifts() {
+        final IdAdapter adapter = new IdAdapter(300);
+        final ItemIdIndex index = new ItemIdIndex(adapter);
+        final List<Long> removed = new ArrayList<>();
+        while (adapter.mIds.size() > 1) {
+            removed.add(adapter.mIds.remove(1));
+            index.onItemRangeRemoved(1, 1);
+            assertPositions(adapter, index);
+        }
+        for (long id : removed) {
+            assertEquals(RecyclerView.NO_POSITION, index.getPosition(id));
+        }
+    }
+
+    @Test
+    public void randomUpdates() {
+        final Random random = new Random(42);
+        final IdAdapter adapter = new IdAdapter(50);
+        final ItemIdIndex index = new ItemIdIndex(adapter);
+        final List<Long> ids = adapter.mIds;
+        for (int iteration = 0; iteration < 20000; iteration++) {
+            final int op = random.nextInt(ids.isEmpty() ? 1 : 9);
+            if (op < 3) {
+                final int start = random.nextInt(ids.size() + 1);
+                final int count = 1 + random.nextInt(4);
+                for (int i = 0; i < count; i++) {
+                    ids.add(start + i, adapter.mNextId++);
+                }
+                index.onItemRangeInserted(start, count);
+            } else if (op < 5) {
+                final int start = random.nextInt(ids.size());
+                final int count = 1 + random.nextInt(Math.min(4, ids.size() - start));
+                ids.subList(start, start + count).clear();
+                index.onItemRangeRemoved(start, count);
+            } else if (op < 7) {
+                final int from = random.nextInt(ids.size());
+                final int count = 1 + random.nextInt(Math.min(3, ids.size() - from));
+                final int to = random.nextInt(ids.size() - count + 1);
+                final List<Long> block = new ArrayList<>(ids.subList(from, from + count));
+                ids.subList(from, from + count).clear();
+                ids.addAll(to, block);
+                index.onItemRangeMoved(from, to, count);
+            } else if (op < 8) {
+                final int start = random.nextInt(ids.size());
+                ids.set(start, adapter.mNextId++);
+                index.onItemRangeChanged(start, 1);
+            } else if (random.nextInt(50) == 0) {
+                index.onChanged();
+            }
+            if (ids.size() > 200) {
+                final int count = ids.size() - 100;
+                ids.subList(100, ids.size()).clear();
+                index.onItemRangeRemoved(100, count);
+            }
+            assertPositions(adapter, index);
+            // Ids which were removed or never existed
+            assertEquals(RecyclerView.NO_POSITION, index.getPosition(adapter.mNextId));
+            final long gone = random.nextInt((int) adapter.mNextId);
+            if (!ids.contains(gone)) {
+                assertEquals(RecyclerView.NO_POSITION, index.getPosition(gone));
+            }
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private static void assertPositions(final IdAdapter adapter, final ItemIdIndex index) {
+        for (int i = 0; i < adapter.mIds.size(); i++) {
+            final long id = adapter.mIds.get(i);
+            assertEquals("position of " + id, adapter.mIds.indexOf(id), index.getPosition(id));
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    private static final class IdAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+        final List<Long> mIds = new ArrayList<>();
+        long mNextId;
+
+        IdAdapter(final int itemCount) {
+            while (mIds.size() < itemCount) {
+                mIds.add(mNextId++);
+            }
+        }
+
+        @Override
+        public int getItemCount() {
+            return mIds.size();
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return mIds.get(position);
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Applies the updates of each diff to a copy of the old list and checks that it becomes the new
+ * one : same items at the same positions, the others inserted, the changed ones notified.
+ */
+public class ListDifferTest {
+
+    @Test
+    public void insert() {
+        final List<Item> old = items("a", "b", "c");
+        assertDiff(old, Arrays.asList(old.get(0), new Item("x"), new Item("y"), old.get(1), old.get(2), new Item("z")));
+    }
+
+    @Test
+    public void remove() {
+        final List<Item> old = items("a", "b", "c", "d", "e");
+        assertDiff(old, Arrays.asList(old.get(1), old.get(4)));
+    }
+
+    @Test
+    public void move() {
+        final List<Item> old = items("a", "b", "c", "d", "e");
+        final ListDiffer.Result result = assertDiff(old, Arrays.asList(old.get(3), old.get(0), old.get(1), old.get(2), old.get(4)));
+        assertEquals(1, result.getUpdateCount());
+    }
+
+    @Test
+    public void change() {
+        final List<Item> old = items("a", "b", "c");
+        final Item changed = new Item(old.get(1).id, "b2");
+        final RecordingObserver observer = new RecordingObserver(old);
+        ListDiffer.diff(new ItemCallback(old, Arrays.asList(old.get(0), changed, old.get(2)), 0)).dispatchUpdatesTo(observer);
+        assertEquals(Collections.singletonList(1), observer.mChanged);
+    }
+
+    @Test
+    public void emptyToFull() {
+        assertDiff(Collections.<Item>emptyList(), items("a", "b", "c"));
+    }
+
+    @Test
+    public void fullToEmpty() {
+        assertDiff(items("a", "b", "c"), Collections.<Item>emptyList());
+    }
+
+    @Test
+    public void randomEdits() {
+        final Random random = new Random(42);
+        for (int iteration = 0; iteration < 500; iteration++) {
+            final List<Item> old = new ArrayList<>();
+            final int size = random.nextInt(40);
+            for (int i = 0; i < size; i++) {
+                old.add(new Item("item" + i));
+            }
+            final List<Item> target = new ArrayList<>(old);
+            final int edits = random.nextInt(10);
+            for (int i = 0; i < edits; i++) {
+                final int op = random.nextInt(4);
+                if (op == 0 || target.isEmpty()) {
+                    target.add(random.nextInt(target.size() + 1), new Item("new" + i));
+                } else if (op == 1) {
+                    target.remove(random.nextInt(target.size()));
+                } else if (op == 2) {
+                    target.add(random.nextInt(target.size()), target.remove(random.nextInt(target.size())));
+                } else {
+                    final int position = random.nextInt(target.size());
+                    target.set(position, new Item(target.get(position).id, "changed" + i));
+                }
+            }
+            assertDiff(old, target);
+            // Keys shared by several items, told apart by areItemsTheSame()
+            assertDiff(new ItemCallback(old, target, 3), old, target);
+        }
+    }
+
+    @Test
+    public void randomMoves() {
+        final Random random = new Random(42);
+        for (int iteration = 0; iteration < 300; iteration++) {
+            final List<Item> old = new ArrayList<>();
+            final int size = random.nextInt(200);
+            for (int i = 0; i < size; i++) {
+                old.add(new Item("item" + i));
+            }
+            final List<Item> target = new ArrayList<>(old);
+            final int moves = random.nextInt(size + 1);
+            for (int i = 0; i < moves; i++) {
+                target.add(random.nextInt(target.size()), target.remove(random.nextInt(target.size())));
+            }
+            if (size > 0 && random.nextBoolean()) {
+                target.remove(old.get(0));
+                target.add(random.nextInt(target.size() + 1), new Item("new"));
+            }
+            assertDiff(new ItemCallback(old, target, 1 + random.nextInt(50)), old, target);
+        }
+    }
+
+    @Test
+    public void shuffle() {
+        final List<Item> old = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            old.add(new Item("item" + i));
+        }
+        final List<Item> target = new ArrayList<>(old);
+        Collections.shuffle(target, new Random(42));
+        final ListDiffer.Result result = assertDiff(new ItemCallback(old, target, Integer.MAX_VALUE), old, target);
+        // Only moves, nothing removed and inserted again
+        assertTrue(result.getUpdateCount() < old.size());
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private static ListDiffer.Result assertDiff(final List<Item> old, final List<Item> target) {
+        return assertDiff(new ItemCallback(old, target, 0), old, target);
+    }
+
+    private static ListDiffer.Result assertDiff(final ItemCallback callback, final List<Item> old, final List<Item> target) {
+        final ListDiffer.Result result = ListDiffer.diff(callback);
+        final RecordingObserver observer = new RecordingObserver(old);
+        result.dispatchUpdatesTo(observer);
+
+        assertEquals(target.size(), observer.mItems.size());
+        for (int i = 0; i < target.size(); i++) {
+            final Item item = observer.mItems.get(i);
+            if (item == null) {
+                continue;
+            }
+            assertEquals("item at " + i, target.get(i).id, item.id);
+            if (!item.content.equals(target.get(i).content)) {
+                assertTrue("change of " + i + " not notified", observer.mChanged.contains(i));
+            }
+        }
+        // Inserted positions are only the items which were not in the old list
+        for (int i = 0; i < target.size(); i++) {
+            if (observer.mItems.get(i) == null) {
+                for (Item item : old) {
+                    assertTrue("item at " + i + " inserted but kept", item.id != target.get(i).id);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<Item> items(final String... contents) {
+        final List<Item> items = new ArrayList<>();
+        for (String content : contents) {
+            items.add(new Item(content));
+        }
+        return items;
+    }
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    private static final class Item {
+
+        private static int sNextId;
+
+        final int id;
+        final String content;
+
+        Item(final String content) {
+            this(sNextId++, content);
+        }
+
+        Item(final int id, final String content) {
+            this.id = id;
+            this.content = content;
+        }
+    }
+
+    /**
+     * Keyed by the ids modulo {@code keyModulo}, or with the default keys if it is 0.
+     */
+    private static final class ItemCallback extends ListDiffer.Callback {
+
+        private final List<Item> mOld;
+        private final List<Item> mNew;
+        private final int mKeyModulo;
+
+        ItemCallback(final List<Item> old, final List<Item> target, final int keyModulo) {
+            mOld = old;
+            mNew = target;
+            mKeyModulo = keyModulo;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOld.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNew.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldPosition, int newPosition) {
+            return mOld.get(oldPosition).id == mNew.get(newPosition).id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPosition, int newPosition) {
+            return mOld.get(oldPosition).content.equals(mNew.get(newPosition).content);
+        }
+
+        @Override
+        public long getOldItemKey(int oldPosition) {
+            return mKeyModulo != 0 ? mOld.get(oldPosition).id % mKeyModulo : super.getOldItemKey(oldPosition);
+        }
+
+        @Override
+        public long getNewItemKey(int newPosition) {
+            return mKeyModulo != 0 ? mNew.get(newPosition).id % mKeyModulo : super.getNewItemKey(newPosition);
+        }
+    }
+
+    /**
+     * Applies the notifications to a list, inserted items being null.
+     */
+    private static final class RecordingObserver extends RecyclerView.AdapterDataObserver {
+
+        final List<Item> mItems;
+        final List<Integer> mChanged = new ArrayList<>();
+
+        RecordingObserver(final List<Item> old) {
+            mItems = new ArrayList<>(old);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            for (int i = 0; i < itemCount; i++) {
+                mItems.add(positionStart, null);
+            }
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            for (int i = 0; i < itemCount; i++) {
+                // Removals come first, only old items can be removed
+                assertNotNull(mItems.remove(positionStart));
+            }
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            assertEquals(1, itemCount);
+            mItems.add(toPosition, mItems.remove(fromPosition));
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            for (int i = positionStart; i < positionStart + itemCount; i++) {
+                mChanged.add(i);
+            }
+        }
+    }
+}
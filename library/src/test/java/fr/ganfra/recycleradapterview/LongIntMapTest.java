@@ -0,0 +1,86 @@
+package fr.ganfra.recycleradapterview;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the map against a HashMap through random puts and removes. The keys are drawn from a
+ * small range so the map stays crowded, with long probe runs wrapping around the end of the
+ * table for the removals to shift back.
+ */
+public class LongIntMapTest {
+
+    private static final int MISSING = -1;
+
+    @Test
+    public void putGetRemove() {
+        final LongIntMap map = new LongIntMap();
+        map.put(Long.MIN_VALUE, 1);
+        map.put(0, 2);
+        map.put(Long.MAX_VALUE, 3);
+        map.put(0, 4);
+
+        assertEquals(3, map.size());
+        assertEquals(1, map.get(Long.MIN_VALUE, MISSING));
+        assertEquals(4, map.get(0, MISSING));
+        assertEquals(3, map.get(Long.MAX_VALUE, MISSING));
+
+        map.remove(0);
+        map.remove(42);
+        assertEquals(2, map.size());
+        assertEquals(MISSING, map.get(0, MISSING));
+        assertEquals(3, map.get(Long.MAX_VALUE, MISSING));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeValue() {
+        new LongIntMap().put(1, -1);
+    }
+
+    @Test
+    public void randomOperations() {
+        final Random random = new Random(42);
+        for (int iteration = 0; iteration < 200; iteration++) {
+            final LongIntMap map = new LongIntMap();
+            final Map<Long, Integer> expected = new HashMap<>();
+            // About 3 / 4 of the keys are present : the table of 16 or 32 slots is mostly full
+            final int keyRange = 12 + random.nextInt(20);
+            for (int i = 0; i < 2000; i++) {
+                final long key = random.nextInt(keyRange) * 0x100000001L;
+                if (random.nextInt(4) == 0) {
+                    map.remove(key);
+                    expected.remove(key);
+                } else {
+                    final int value = random.nextInt(1000);
+                    map.put(key, value);
+                    expected.put(key, value);
+                }
+                assertMap(expected, map, keyRange);
+            }
+            // Reset keeps the map usable, growing or not
+            map.reset(random.nextInt(100));
+            expected.clear();
+            assertMap(expected, map, keyRange);
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private static void assertMap(final Map<Long, Integer> expected, final LongIntMap map, final int keyRange) {
+        assertEquals(expected.size(), map.size());
+        for (int i = 0; i < keyRange; i++) {
+            final long key = i * 0x100000001L;
+            final Integer value = expected.get(key);
+            assertEquals("value of " + key, value != null ? value : MISSING, map.get(key, MISSING));
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives the adapter with a fake page source, the worker and main thread tasks being queued and
+ * run by the test, and checks the notifications it dispatches along the way.
+ */
+public class PagedAdapterTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Test
+    public void loadingRowUntilThePageArrives() {
+        final Fixture fixture = new Fixture(35);
+        fixture.mAdapter.loadNextPage();
+        assertEquals(Collections.singletonList("insert 0 1"), fixture.takeUpdates());
+        assertEquals(1, fixture.mAdapter.getItemCount());
+        assertEquals(PagedAdapter.VIEW_TYPE_LOADING, fixture.mAdapter.getItemViewType(0));
+        assertTrue(fixture.mAdapter.isLoading());
+
+        // Already loading
+        fixture.mAdapter.loadNextPage();
+        assertTrue(fixture.takeUpdates().isEmpty());
+
+        fixture.runTasks();
+        assertEquals(Arrays.asList("remove 0 1", "insert 0 10"), fixture.takeUpdates());
+        assertEquals(PAGE_SIZE, fixture.mAdapter.getItemCount());
+        assertFalse(fixture.mAdapter.isLoading());
+        assertEquals("0 : 3", fixture.mAdapter.getItem(3));
+    }
+
+    @Test
+    public void nextPageRequestedAtThePrefetchDistance() {
+        final Fixture fixture = new Fixture(35);
+        fixture.mAdapter.setPrefetchDistance(3);
+        fixture.loadFirstPage();
+
+        for (int position = 0; position < PAGE_SIZE - 3; position++) {
+            fixture.bind(position);
+        }
+        assertTrue(fixture.mMain.mTasks.isEmpty());
+
+        // Posted once, notifications are not allowed while binding
+        fixture.bind(PAGE_SIZE - 3);
+        assertEquals(1, fixture.mMain.mTasks.size());
+        fixture.bind(PAGE_SIZE - 2);
+        assertTrue(fixture.takeUpdates().isEmpty());
+        assertEquals(1, fixture.mMain.mTasks.size());
+
+        fixture.runTasks();
+        assertEquals(Arrays.asList("insert 10 1", "remove 10 1", "insert 10 10"), fixture.takeUpdates());
+        assertEquals(Collections.singletonList(1), fixture.mSource.mRequests);
+    }
+
+    @Test
+    public void lastPageEndsTheLoading() {
+        final Fixture fixture = new Fixture(15);
+        fixture.loadFirstPage();
+        fixture.bind(PAGE_SIZE - 1);
+        fixture.runTasks();
+        assertEquals(Arrays.asList("insert 10 1", "remove 10 1", "insert 10 5"), fixture.takeUpdates());
+        assertTrue(fixture.mAdapter.isEndReached());
+
+        fixture.bind(14);
+        fixture.mAdapter.loadNextPage();
+        fixture.runTasks();
+        assertTrue(fixture.takeUpdates().isEmpty());
+        assertEquals(15, fixture.mAdapter.getItemCount());
+    }
+
+    @Test
+    public void failedPageIsRequestedAgainExplicitly() {
+        final Fixture fixture = new Fixture(35);
+        fixture.loadFirstPage();
+        fixture.mSource.mFailingPages.add(1);
+        fixture.bind(PAGE_SIZE - 1);
+        fixture.runTasks();
+        assertEquals(Arrays.asList("insert 10 1", "remove 10 1"), fixture.takeUpdates());
+        assertEquals(Collections.singletonList(1), fixture.mAdapter.mFailedPages);
+
+        // No more prefetch until the app asks for it
+        fixture.bind(PAGE_SIZE - 1);
+        assertTrue(fixture.mMain.mTasks.isEmpty());
+
+        fixture.mSource.mFailingPages.clear();
+        fixture.mAdapter.loadNextPage();
+        fixture.runTasks();
+        assertEquals(Arrays.asList("insert 10 1", "remove 10 1", "insert 10 10"), fixture.takeUpdates());
+    }
+
+    @Test
+    public void evictedPagesAreLoadedAgainWhenBound() {
+        final Fixture fixture = new Fixture(100);
+        fixture.mAdapter.setMaxPages(2);
+        fixture.loadFirstPage();
+        fixture.bind(PAGE_SIZE - 1);
+        fixture.runTasks();
+        assertEquals(Arrays.asList("insert 10 1", "remove 10 1", "insert 10 10"), fixture.takeUpdates());
+
+        // The third page moves the window to the pages 1 and 2 : the rows of the page 0 become placeholders
+        fixture.bind(2 * PAGE_SIZE - 1);
+        fixture.runTasks();
+        assertEquals(Arrays.asList("insert 20 1", "remove 20 1", "insert 20 10", "change 0 10"), fixture.takeUpdates());
+        assertNull(fixture.mAdapter.getItem(0));
+        assertEquals("0 : 10", fixture.mAdapter.getItem(10));
+
+        // Bound as a placeholder, then bound again once loaded
+        fixture.mSource.mRequests.clear();
+        fixture.mAdapter.takeBoundItems();
+        fixture.bind(5);
+        assertEquals(Collections.singletonList(null), fixture.mAdapter.takeBoundItems());
+        // Requested once
+        fixture.bind(6);
+        assertEquals(1, fixture.mWorker.mTasks.size());
+        assertEquals(Collections.singletonList(null), fixture.mAdapter.takeBoundItems());
+
+        fixture.runTasks();
+        assertEquals(Collections.singletonList(0), fixture.mSource.mRequests);
+        // The window moved back to the pages 0 and 1
+        assertEquals(Arrays.asList("change 0 10", "change 20 10"), fixture.takeUpdates());
+        assertEquals("0 : 5", fixture.mAdapter.getItem(5));
+        assertNull(fixture.mAdapter.getItem(20));
+        fixture.bind(5);
+        assertEquals(Collections.singletonList("0 : 5"), fixture.mAdapter.takeBoundItems());
+    }
+
+    @Test
+    public void refreshDropsThePagesInFlight() {
+        final Fixture fixture = new Fixture(35);
+        fixture.loadFirstPage();
+        fixture.bind(PAGE_SIZE - 1);
+        fixture.mMain.runNext();
+        assertEquals(Collections.singletonList("insert 10 1"), fixture.takeUpdates());
+
+        // The page 1 is loading when the data changes
+        fixture.mSource.mVersion = 1;
+        fixture.mAdapter.refresh();
+        assertEquals(Arrays.asList("remove 0 11", "insert 0 1"), fixture.takeUpdates());
+
+        fixture.runTasks();
+        assertEquals(Arrays.asList("remove 0 1", "insert 0 10"), fixture.takeUpdates());
+        assertEquals(PAGE_SIZE, fixture.mAdapter.getItemCount());
+        assertEquals("1 : 0", fixture.mAdapter.getItem(0));
+    }
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    private static final class Fixture extends RecyclerView.AdapterDataObserver {
+
+        final QueueExecutor mWorker = new QueueExecutor();
+        final QueueExecutor mMain = new QueueExecutor();
+        final FakeSource mSource;
+        final TestAdapter mAdapter;
+        final List<String> mUpdates = new ArrayList<>();
+        int mRowCount;
+
+        Fixture(final int itemCount) {
+            mSource = new FakeSource(itemCount);
+            mAdapter = new TestAdapter(mSource, mWorker, mMain);
+            mAdapter.setUpdateTarget(this);
+        }
+
+        void loadFirstPage() {
+            mAdapter.loadNextPage();
+            runTasks();
+            mUpdates.clear();
+            mSource.mRequests.clear();
+        }
+
+        void bind(final int position) {
+            mAdapter.onBindViewHolder(null, position);
+        }
+
+        /**
+         * Runs the queued tasks until there are none, checking the rows follow the item count.
+         */
+        void runTasks() {
+            while (!mWorker.mTasks.isEmpty() || !mMain.mTasks.isEmpty()) {
+                if (!mWorker.mTasks.isEmpty()) {
+                    mWorker.runNext();
+                } else {
+                    mMain.runNext();
+                }
+                assertEquals(mAdapter.getItemCount(), mRowCount);
+            }
+        }
+
+        List<String> takeUpdates() {
+            final List<String> updates = new ArrayList<>(mUpdates);
+            mUpdates.clear();
+            return updates;
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            mUpdates.add("change " + positionStart + " " + itemCount);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            mUpdates.add("insert " + positionStart + " " + itemCount);
+            mRowCount += itemCount;
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            mUpdates.add("remove " + positionStart + " " + itemCount);
+            mRowCount -= itemCount;
+        }
+    }
+
+    private static final class TestAdapter extends PagedAdapter<String, RecyclerAdapterView.ViewHolder> {
+
+        final List<String> mBoundItems = new ArrayList<>();
+        final List<Integer> mFailedPages = new ArrayList<>();
+
+        TestAdapter(final FakeSource source, final Executor executor, final Executor mainThreadExecutor) {
+            super(source, PAGE_SIZE, executor, mainThreadExecutor);
+        }
+
+        List<String> takeBoundItems() {
+            final List<String> items = new ArrayList<>(mBoundItems);
+            mBoundItems.clear();
+            return items;
+        }
+
+        @Override
+        protected RecyclerAdapterView.ViewHolder onCreateItemViewHolder(ViewGroup parent, int viewType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void onBindItemViewHolder(RecyclerAdapterView.ViewHolder holder, int position, String item) {
+            mBoundItems.add(item);
+        }
+
+        @Override
+        protected void onPageLoadFailed(int page, Exception e) {
+            mFailedPages.add(page);
+        }
+    }
+
+    /**
+     * Items named after the version of the data and their position.
+     */
+    private static final class FakeSource implements PagedAdapter.PageLoader<String> {
+
+        final int mItemCount;
+        final List<Integer> mRequests = new ArrayList<>();
+        final Set<Integer> mFailingPages = new HashSet<>();
+        int mVersion;
+
+        FakeSource(final int itemCount) {
+            mItemCount = itemCount;
+        }
+
+        @Override
+        public List<String> loadPage(int page, int pageSize) throws Exception {
+            mRequests.add(page);
+            if (mFailingPages.contains(page)) {
+                throw new Exception("Page " + page);
+            }
+            final List<String> items = new ArrayList<>();
+            for (int i = page * pageSize; i < Math.min(mItemCount, (page + 1) * pageSize); i++) {
+                items.add(mVersion + " : " + i);
+            }
+            return items;
+        }
+    }
+
+    private static final class QueueExecutor implements Executor {
+
+        final Queue<Runnable> mTasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable runnable) {
+            mTasks.add(runnable);
+        }
+
+        void runNext() {
+            mTasks.remove().run();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package fr.ganfra.recycleradapterview;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Checks the set against a list of booleans through random range inserts, removes and moves.
+ * The sizes go up to a few hundred positions and the ranges up to 70, so the shifts keep
+ * crossing the 64 bit word boundaries.
+ */
+public class PositionBitSetTest {
+
+    @Test
+    public void insertAtWordBoundary() {
+        final PositionBitSet set = new PositionBitSet();
+        set.reset(128);
+        set.set(62, true);
+        set.set(63, true);
+        set.set(64, true);
+
+        set.insert(63, 1);
+        assertEquals(129, set.size());
+        assertEquals(3, set.count());
+        assertEquals(62, set.nextSetBit(0));
+        assertFalse(set.get(63));
+        assertEquals(64, set.nextSetBit(63));
+        assertEquals(65, set.nextSetBit(65));
+        assertEquals(-1, set.nextSetBit(66));
+    }
+
+    @Test
+    public void setAllCoversOnlyTheSize() {
+        final PositionBitSet set = new PositionBitSet();
+        set.reset(70);
+        set.setAll();
+        assertEquals(70, set.count());
+
+        // The positions inserted after the last one are not set
+        set.insert(70, 60);
+        assertEquals(70, set.count());
+        assertEquals(-1, set.nextSetBit(70));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void setOutOfSize() {
+        final PositionBitSet set = new PositionBitSet();
+        set.reset(64);
+        set.set(64, true);
+    }
+
+    @Test
+    public void randomOperations() {
+        final Random random = new Random(42);
+        for (int iteration = 0; iteration < 300; iteration++) {
+            final PositionBitSet set = new PositionBitSet();
+            final List<Boolean> expected = new ArrayList<>();
+            final int size = random.nextInt(200);
+            set.reset(size);
+            expected.addAll(Collections.nCopies(size, false));
+
+            for (int i = 0; i < 200; i++) {
+                final int op = random.nextInt(expected.isEmpty() ? 1 : 12);
+                if (op < 3) {
+                    final int position = random.nextInt(expected.size() + 1);
+                    final int count = 1 + random.nextInt(70);
+                    set.insert(position, count);
+                    expected.addAll(position, Collections.nCopies(count, false));
+                } else if (op < 5) {
+                    final int position = random.nextInt(expected.size());
+                    final int count = 1 + random.nextInt(Math.min(70, expected.size() - position));
+                    set.remove(position, count);
+                    expected.subList(position, position + count).clear();
+                } else if (op < 7) {
+                    final int from = random.nextInt(expected.size());
+                    final int count = 1 + random.nextInt(Math.min(70, expected.size() - from));
+                    final int to = random.nextInt(expected.size() - count + 1);
+                    set.move(from, to, count);
+                    final List<Boolean> block = new ArrayList<>(expected.subList(from, from + count));
+                    expected.subList(from, from + count).clear();
+                    expected.addAll(to, block);
+                } else if (op < 11) {
+                    // Several bits per op, so the set gets dense enough for the shifts to matter
+                    for (int j = 0; j < 8; j++) {
+                        final int position = random.nextInt(expected.size());
+                        final boolean value = random.nextInt(3) != 0;
+                        set.set(position, value);
+                        expected.set(position, value);
+                    }
+                } else if (random.nextBoolean()) {
+                    set.setAll();
+                    Collections.fill(expected, true);
+                } else {
+                    set.clear();
+                    Collections.fill(expected, false);
+                }
+                assertSet(expected, set);
+            }
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private static void assertSet(final List<Boolean> expected, final PositionBitSet set) {
+        assertEquals(expected.size(), set.size());
+        int count = 0;
+        int next = -1;
+        // Walks backwards so the expected next set position is known at each step
+        for (int i = expected.size() - 1; i >= 0; i--) {
+            final boolean value = expected.get(i);
+            assertEquals("position " + i, value, set.get(i));
+            if (value) {
+                count++;
+                next = i;
+            }
+            assertEquals("next set position from " + i, next, set.nextSetBit(i));
+        }
+        assertEquals(count, set.count());
+        assertFalse(set.get(expected.size()));
+        assertEquals(-1, set.nextSetBit(expected.size()));
+    }
+}
@@ -0,0 +1,183 @@
+package fr.ganfra.recycleradapterview;
+
+import android.view.ViewGroup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the incrementally maintained section starts against a full recompute of the section
+ * keys after each range notification. The keys are drawn from a few values, so the changes keep
+ * merging and splitting the sections around them.
+ */
+public class SectionIndexTest {
+
+    @Test
+    public void removalMergesNeighbourSections() {
+        final KeyAdapter adapter = new KeyAdapter(0, 0, 1, 0, 0);
+        final SectionIndex index = new SectionIndex(adapter);
+        assertEquals(3, index.getSectionCount());
+
+        adapter.mKeys.remove(2);
+        index.onItemRangeRemoved(2, 1);
+        assertEquals(1, index.getSectionCount());
+        assertEquals(0, index.getSectionForPosition(3));
+    }
+
+    @Test
+    public void insertionSplitsSection() {
+        final KeyAdapter adapter = new KeyAdapter(0, 0, 0, 0);
+        final SectionIndex index = new SectionIndex(adapter);
+        assertEquals(1, index.getSectionCount());
+
+        adapter.mKeys.add(2, 1L);
+        index.onItemRangeInserted(2, 1);
+        assertStarts(adapter, index);
+        assertEquals(2, index.getSectionForPosition(4));
+    }
+
+    @Test
+    public void labelsFollowTheChanges() {
+        final KeyAdapter adapter = new KeyAdapter(0, 1, 2);
+        final SectionIndex index = new SectionIndex(adapter);
+        assertArrayEquals(new Object[]{0L, 1L, 2L}, index.getSections());
+
+        adapter.mKeys.set(1, 2L);
+        index.onItemRangeChanged(1, 1);
+        assertArrayEquals(new Object[]{0L, 2L}, index.getSections());
+    }
+
+    @Test
+    public void randomUpdates() {
+        final Random random = new Random(42);
+        for (int iteration = 0; iteration < 500; iteration++) {
+            final KeyAdapter adapter = new KeyAdapter();
+            final List<Long> keys = adapter.mKeys;
+            final int keyRange = 2 + random.nextInt(3);
+            final int size = random.nextInt(40);
+            for (int i = 0; i < size; i++) {
+                keys.add((long) random.nextInt(keyRange));
+            }
+            final SectionIndex index = new SectionIndex(adapter);
+            assertStarts(adapter, index);
+
+            for (int i = 0; i < 100; i++) {
+                final int op = random.nextInt(keys.isEmpty() ? 1 : 10);
+                if (op < 4) {
+                    final int start = random.nextInt(keys.size() + 1);
+                    final int count = 1 + random.nextInt(4);
+                    for (int j = 0; j < count; j++) {
+                        keys.add(start + j, (long) random.nextInt(keyRange));
+                    }
+                    index.onItemRangeInserted(start, count);
+                } else if (op < 7) {
+                    final int start = random.nextInt(keys.size());
+                    final int count = 1 + random.nextInt(Math.min(4, keys.size() - start));
+                    keys.subList(start, start + count).clear();
+                    index.onItemRangeRemoved(start, count);
+                } else if (op < 9) {
+                    final int start = random.nextInt(keys.size());
+                    final int count = 1 + random.nextInt(Math.min(4, keys.size() - start));
+                    for (int j = start; j < start + count; j++) {
+                        keys.set(j, (long) random.nextInt(keyRange));
+                    }
+                    index.onItemRangeChanged(start, count);
+                } else {
+                    // Drops the index, built again by the next query
+                    final int from = random.nextInt(keys.size());
+                    final int to = random.nextInt(keys.size());
+                    keys.add(to, keys.remove(from));
+                    index.onItemRangeMoved(from, to, 1);
+                }
+                assertStarts(adapter, index);
+            }
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    /**
+     * Compares every query of the index with the sections computed from scratch.
+     */
+    private static void assertStarts(final KeyAdapter adapter, final SectionIndex index) {
+        final List<Long> keys = adapter.mKeys;
+        final List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (i == 0 || !keys.get(i).equals(keys.get(i - 1))) {
+                starts.add(i);
+            }
+        }
+        final String message = "keys " + keys;
+        assertEquals(message, starts.size(), index.getSectionCount());
+        int section = -1;
+        for (int i = 0; i < keys.size(); i++) {
+            final boolean start = starts.contains(i);
+            if (start) {
+                section++;
+                assertEquals(message, i, index.getSectionStart(section));
+            }
+            assertEquals(message + " start at " + i, start, index.isSectionStart(i));
+            assertEquals(message + " section at " + i, section, index.getSectionForPosition(i));
+        }
+        final Object[] labels = new Object[starts.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = keys.get(starts.get(i));
+        }
+        assertArrayEquals(message, labels, index.getSections());
+    }
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    /**
+     * Adapter of section keys, labelled by their key.
+     */
+    private static final class KeyAdapter extends SectionedAdapter<RecyclerAdapterView.ViewHolder> {
+
+        final List<Long> mKeys = new ArrayList<>();
+
+        KeyAdapter(final long... keys) {
+            for (long key : keys) {
+                mKeys.add(key);
+            }
+        }
+
+        @Override
+        protected long getSectionKey(int position) {
+            return mKeys.get(position);
+        }
+
+        @Override
+        protected Object getSectionLabel(int position) {
+            return mKeys.get(position);
+        }
+
+        @Override
+        public Object getItem(int position) {
+            return mKeys.get(position);
+        }
+
+        @Override
+        public int getItemCount() {
+            return mKeys.size();
+        }
+
+        @Override
+        public RecyclerAdapterView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
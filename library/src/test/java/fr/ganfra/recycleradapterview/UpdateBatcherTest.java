@@ -0,0 +1,309 @@
+package fr.ganfra.recycleradapterview;
+
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays the same notifications with and without batching and checks that the RecyclerView
+ * ends up with the same rows : every row it keeps without binding it again is the data item at
+ * that position.
+ */
+public class UpdateBatcherTest {
+
+    @Test
+    public void mergesWithLastPendingUpdate() {
+        final TestBatcher batcher = new TestBatcher();
+        batcher.onItemRangeInserted(0, 2);
+        batcher.onItemRangeInserted(2, 1);
+        batcher.onItemRangeRemoved(8, 2);
+        batcher.onItemRangeRemoved(6, 2);
+        batcher.flush();
+
+        assertEquals(2, batcher.mDispatched.size());
+        assertDispatched(batcher.mDispatched.get(0), RecyclerAdapterView.UPDATE_INSERT, 0, 3, 2);
+        assertDispatched(batcher.mDispatched.get(1), RecyclerAdapterView.UPDATE_REMOVE, 6, 4, 2);
+    }
+
+    @Test
+    public void doesNotMergeWithOlderUpdates() {
+        final TestBatcher batcher = new TestBatcher();
+        batcher.onItemRangeInserted(0, 1);
+        batcher.onItemRangeChanged(5, 1, null);
+        batcher.onItemRangeInserted(1, 1);
+        batcher.flush();
+
+        assertEquals(3, batcher.mDispatched.size());
+        assertDispatched(batcher.mDispatched.get(2), RecyclerAdapterView.UPDATE_INSERT, 1, 1, 1);
+    }
+
+    @Test
+    public void changeInsideInsertIsDropped() {
+        final TestBatcher batcher = new TestBatcher();
+        batcher.onItemRangeInserted(3, 4);
+        batcher.onItemRangeChanged(4, 2, null);
+        batcher.flush();
+
+        assertEquals(1, batcher.mDispatched.size());
+        assertDispatched(batcher.mDispatched.get(0), RecyclerAdapterView.UPDATE_INSERT, 3, 4, 2);
+    }
+
+    @Test
+    public void dispatchesImmediatelyWhileScrolling() {
+        final TestBatcher batcher = new TestBatcher();
+        batcher.onItemRangeInserted(0, 1);
+        batcher.mScrolling = true;
+        batcher.onItemRangeInserted(1, 1);
+
+        // The pending update goes first, then the new one without being merged
+        assertEquals(2, batcher.mDispatched.size());
+        assertDispatched(batcher.mDispatched.get(0), RecyclerAdapterView.UPDATE_INSERT, 0, 1, 1);
+        assertDispatched(batcher.mDispatched.get(1), RecyclerAdapterView.UPDATE_INSERT, 1, 1, 1);
+
+        batcher.onItemRangeRemoved(0, 1);
+        assertEquals(3, batcher.mDispatched.size());
+    }
+
+    @Test
+    public void flushDispatchesBeforeTheFrame() {
+        final TestBatcher batcher = new TestBatcher();
+        batcher.onItemRangeInserted(0, 1);
+        batcher.onItemRangeChanged(4, 1, null);
+        assertEquals(1, batcher.mScheduleCount);
+        assertTrue(batcher.mDispatched.isEmpty());
+
+        // Like RecyclerAdapterView.onMeasure() and onLayout() do
+        batcher.flush();
+        assertEquals(2, batcher.mDispatched.size());
+
+        batcher.run();
+        assertEquals(2, batcher.mDispatched.size());
+        assertEquals(2, batcher.getDispatchedUpdateCount());
+    }
+
+    @Test
+    public void dataSetChangeSupersedesPendingUpdates() {
+        final TestBatcher batcher = new TestBatcher();
+        batcher.onItemRangeInserted(0, 1);
+        batcher.onItemRangeRemoved(3, 1);
+        batcher.onChanged();
+        batcher.onItemRangeChanged(2, 1, null);
+        batcher.flush();
+
+        assertEquals(1, batcher.mDispatched.size());
+        assertDispatched(batcher.mDispatched.get(0), RecyclerAdapterView.UPDATE_DATA_SET_CHANGED, 0, 0, 4);
+    }
+
+    @Test
+    public void randomUpdates() {
+        final Random random = new Random(42);
+        for (int iteration = 0; iteration < 2000; iteration++) {
+            final List<Integer> data = new ArrayList<>();
+            final int size = random.nextInt(30);
+            int nextId = 0;
+            while (data.size() < size) {
+                data.add(nextId++);
+            }
+            final RowsObserver unbatched = new RowsObserver(data);
+            final RowsObserver batched = new RowsObserver(data);
+            final TestBatcher batcher = new TestBatcher();
+            batcher.setTarget(batched);
+
+            final int updates = random.nextInt(20);
+            for (int i = 0; i < updates; i++) {
+                if (random.nextInt(8) == 0) {
+                    batcher.mScrolling = !batcher.mScrolling;
+                }
+                final int op = random.nextInt(data.isEmpty() ? 1 : 9);
+                if (op < 3) {
+                    final int start = random.nextInt(data.size() + 1);
+                    final int count = 1 + random.nextInt(3);
+                    for (int j = 0; j < count; j++) {
+                        data.add(start + j, nextId++);
+                    }
+                    unbatched.onItemRangeInserted(start, count);
+                    batcher.onItemRangeInserted(start, count);
+                } else if (op < 5) {
+                    final int start = random.nextInt(data.size());
+                    final int count = 1 + random.nextInt(Math.min(3, data.size() - start));
+                    data.subList(start, start + count).clear();
+                    unbatched.onItemRangeRemoved(start, count);
+                    batcher.onItemRangeRemoved(start, count);
+                } else if (op < 7) {
+                    final int start = random.nextInt(data.size());
+                    final int count = 1 + random.nextInt(Math.min(3, data.size() - start));
+                    // A changed item gets a new id, its row has to be bound again
+                    for (int j = start; j < start + count; j++) {
+                        data.set(j, nextId++);
+                    }
+                    final Object payload = random.nextBoolean() ? null : "payload";
+                    unbatched.onItemRangeChanged(start, count, payload);
+                    batcher.onItemRangeChanged(start, count, payload);
+                } else if (op < 8) {
+                    final int from = random.nextInt(data.size());
+                    final int count = 1 + random.nextInt(Math.min(2, data.size() - from));
+                    final int to = random.nextInt(data.size() - count + 1);
+                    move(data, from, to, count);
+                    unbatched.onItemRangeMoved(from, to, count);
+                    batcher.onItemRangeMoved(from, to, count);
+                } else {
+                    for (int j = 0; j < data.size(); j++) {
+                        data.set(j, nextId++);
+                    }
+                    unbatched.onChanged();
+                    batcher.onChanged();
+                }
+            }
+            batcher.flush();
+
+            assertRows(data, unbatched);
+            assertRows(data, batched);
+            assertTrue(batcher.getDispatchedUpdateCount() <= batcher.getRawUpdateCount());
+        }
+    }
+
+    /*
+     * **********************************************************************************
+     * PRIVATE METHODS
+     * **********************************************************************************
+     */
+
+    private static void assertDispatched(final int[] update, final int type, final int start, final int count, final int rawEvents) {
+        assertEquals("type", type, update[0]);
+        assertEquals("start", start, update[1]);
+        assertEquals("count", count, update[2]);
+        assertEquals("raw events", rawEvents, update[3]);
+    }
+
+    private static void assertRows(final List<Integer> data, final RowsObserver observer) {
+        observer.layout();
+        assertEquals(data.size(), observer.mRows.size());
+        for (int i = 0; i < data.size(); i++) {
+            final Integer row = observer.mRows.get(i);
+            if (row != null) {
+                assertEquals("row at " + i, data.get(i), row);
+            }
+        }
+    }
+
+    /**
+     * Moves the block of {@code count} items at {@code from} so it starts at {@code to}, like a
+     * range move notification.
+     */
+    private static <T> void move(final List<T> list, final int from, final int to, final int count) {
+        final List<T> block = new ArrayList<>(list.subList(from, from + count));
+        list.subList(from, from + count).clear();
+        list.addAll(to, block);
+    }
+
+    /*
+     * **********************************************************************************
+     * INNER CLASSES
+     * **********************************************************************************
+     */
+
+    /**
+     * Batcher whose frame is run by the test, recording what it dispatches.
+     */
+    private static final class TestBatcher extends UpdateBatcher implements RecyclerAdapterView.OnUpdateBatchListener {
+
+        final List<int[]> mDispatched = new ArrayList<>();
+        boolean mScrolling;
+        int mScheduleCount;
+
+        TestBatcher() {
+            super(null);
+            setTarget(new RecyclerView.AdapterDataObserver() {
+            });
+            setListener(this);
+        }
+
+        @Override
+        boolean isHostScrolling() {
+            return mScrolling;
+        }
+
+        @Override
+        void scheduleFlush() {
+            mScheduleCount++;
+        }
+
+        @Override
+        public void onUpdateDispatched(int type, int positionStart, int itemCount, int rawEventCount) {
+            mDispatched.add(new int[]{type, positionStart, itemCount, rawEventCount});
+        }
+    }
+
+    /**
+     * Applies the notifications to the rows of a RecyclerView, the rows to bind again being null.
+     * Like RecyclerView, the updates following a full change are dropped : every row is bound
+     * again on the next layout, with the item count of the adapter at that time.
+     */
+    private static final class RowsObserver extends RecyclerView.AdapterDataObserver {
+
+        final List<Integer> mData;
+        final List<Integer> mRows;
+        boolean mChanged;
+
+        RowsObserver(final List<Integer> data) {
+            mData = data;
+            mRows = new ArrayList<>(data);
+        }
+
+        void layout() {
+            if (mChanged) {
+                mChanged = false;
+                mRows.clear();
+                for (int i = 0; i < mData.size(); i++) {
+                    mRows.add(null);
+                }
+            }
+        }
+
+        @Override
+        public void onChanged() {
+            mChanged = true;
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            if (mChanged) {
+                return;
+            }
+            for (int i = positionStart; i < positionStart + itemCount; i++) {
+                mRows.set(i, null);
+            }
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            if (mChanged) {
+                return;
+            }
+            for (int i = 0; i < itemCount; i++) {
+                mRows.add(positionStart, null);
+            }
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            if (!mChanged) {
+                mRows.subList(positionStart, positionStart + itemCount).clear();
+            }
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            if (!mChanged) {
+                move(mRows, fromPosition, toPosition, itemCount);
+            }
+        }
+    }
+}